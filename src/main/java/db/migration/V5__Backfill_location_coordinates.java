@@ -0,0 +1,47 @@
+package db.migration;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.LocationCode;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Fills in the zone, aisle, slot and level of the locations stored before they were parsed from
+ * the code. Written in Java so the codes are parsed by {@link LocationCode}, exactly like the
+ * application parses them.
+ */
+public class V5__Backfill_location_coordinates extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        var connection = context.getConnection();
+
+        try (var select = connection.createStatement();
+             var update = connection.prepareStatement(
+                     "UPDATE location SET zone = ?, aisle = ?, slot = ?, level = ? WHERE location_id = ?")) {
+            var rows = select.executeQuery("SELECT location_id, code FROM location");
+
+            var batched = 0;
+            while (rows.next()) {
+                var coordinates = LocationCode.parse(rows.getString("code"));
+                if (coordinates.isEmpty()) {
+                    continue;
+                }
+
+                update.setInt(1, coordinates.get().zone());
+                update.setInt(2, coordinates.get().aisle());
+                update.setInt(3, coordinates.get().slot());
+                update.setInt(4, coordinates.get().level());
+                update.setLong(5, rows.getLong("location_id"));
+                update.addBatch();
+
+                if (++batched % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+}
@@ -1,17 +1,31 @@
 package no.ntnu.bachelor.voicepick.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.dtos.ImportResult;
+import no.ntnu.bachelor.voicepick.dtos.LocationEntityPage;
+import no.ntnu.bachelor.voicepick.dtos.LocationMismatches;
+import no.ntnu.bachelor.voicepick.dtos.LocationVerification;
+import no.ntnu.bachelor.voicepick.dtos.VerifyLocationRequest;
+import no.ntnu.bachelor.voicepick.models.Location;
 import no.ntnu.bachelor.voicepick.models.LocationEntity;
+import no.ntnu.bachelor.voicepick.services.LocationImportService;
 import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.LocationVerificationService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.persistence.EntityExistsException;
 import lombok.RequiredArgsConstructor;
 import no.ntnu.bachelor.voicepick.dtos.AddLocationRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -20,6 +34,75 @@ import java.util.Set;
 public class LocationController {
 
   private final LocationService locationService;
+  private final LocationImportService locationImportService;
+  private final LocationVerificationService locationVerificationService;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Endpoint for getting the locations in a range of aisles and slots, like every location in
+   * aisle {@code H}, or slots 1 to 20 of aisles {@code A} to {@code C}
+   *
+   * @param zone of the locations. Zone {@code 0} if left out
+   * @param fromAisle the letters of the first aisle
+   * @param toAisle the letters of the last aisle. Only the first aisle if left out
+   * @param fromSlot the first slot. The start of the aisles if left out
+   * @param toSlot the last slot. The end of the aisles if left out
+   * @return {@code 200 OK} with the locations ordered by aisle, slot and level.
+   * {@code 400 BAD_REQUEST} if an aisle is not given as letters
+   */
+  @GetMapping(params = "fromAisle")
+  public ResponseEntity<List<Location>> getLocationsInRange(@RequestParam(defaultValue = "0") int zone,
+                                                            @RequestParam String fromAisle,
+                                                            @RequestParam(required = false) String toAisle,
+                                                            @RequestParam(required = false) Integer fromSlot,
+                                                            @RequestParam(required = false) Integer toSlot) {
+    ResponseEntity<List<Location>> response;
+
+    try {
+      response = new ResponseEntity<>(
+          this.locationService.getLocationsInRange(zone, fromAisle, toAisle, fromSlot, toSlot), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for verifying the control digits spoken by a picker at a location
+   *
+   * @param request containing the code of the location and the digits spoken
+   * @return {@code 200 OK} with whether the digits were the control digits of the location.
+   * {@code 400 BAD_REQUEST} if the digits spoken are not a number.
+   * {@code 404 NOT_FOUND} if no location was found with the code provided
+   */
+  @PostMapping("/verify")
+  public ResponseEntity<LocationVerification> verifyLocation(@RequestBody VerifyLocationRequest request) {
+    ResponseEntity<LocationVerification> response;
+
+    try {
+      var verified = this.locationVerificationService.verify(request.getCode(), request.getControlDigits());
+      response = new ResponseEntity<>(new LocationVerification(request.getCode(), verified), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    } catch (EntityNotFoundException e) {
+      response = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for getting the locations where the wrong control digits are spoken the most
+   *
+   * @param limit the maximum number of locations to return
+   * @return {@code 200 OK} with the locations and their number of mismatches, most first
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @GetMapping("/mismatches")
+  public ResponseEntity<List<LocationMismatches>> getMismatches(@RequestParam(defaultValue = "50") int limit) {
+    return new ResponseEntity<>(this.locationVerificationService.getMismatches(Math.max(0, limit)), HttpStatus.OK);
+  }
 
   /**
    * Endpoint for getting entities stored at a location
@@ -41,6 +124,59 @@ public class LocationController {
     return response;
   }
 
+  /**
+   * Endpoint for getting the entities stored at a location one page at a time, ordered by id
+   *
+   * @param id of the location to get entities for
+   * @param cursor the {@code nextCursor} of the previous page. Left out for the first page
+   * @param limit the maximum number of entities on the page
+   * @return {@code 200 OK} with a page of entities if everything is ok.
+   * {@code 400 BAD_REQUEST} if the limit is out of bounds.
+   * {@code 404 NOT_FOUND} if no location was found with the id provided
+   */
+  @GetMapping(value = "/{id}", params = "limit")
+  public ResponseEntity<LocationEntityPage> getLocationEntities(@PathVariable Long id,
+                                                                @RequestParam(required = false) Long cursor,
+                                                                @RequestParam int limit) {
+    ResponseEntity<LocationEntityPage> response;
+
+    try {
+      response = new ResponseEntity<>(this.locationService.getLocationEntities(id, cursor, limit), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    } catch (EntityNotFoundException e) {
+      response = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for streaming the entities stored at a location as newline delimited JSON, ordered
+   * by id. The entities are written as they are read from the database.
+   *
+   * @param id of the location to get entities for
+   * @return {@code 200 OK} with one entity on each line if everything is ok.
+   * {@code 404 NOT_FOUND} if no location was found with the id provided
+   */
+  @GetMapping(value = "/{id}", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamLocationEntities(@PathVariable Long id) {
+    if (!this.locationService.existsLocation(id)) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    StreamingResponseBody body = out -> this.locationService.forEachLocationEntity(id, entity -> {
+      try {
+        out.write(this.objectMapper.writeValueAsBytes(entity));
+        out.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    return new ResponseEntity<>(body, HttpStatus.OK);
+  }
+
   /**
    * Endpoint for adding a new location
    * 
@@ -62,4 +198,64 @@ public class LocationController {
 
     return response;
   }
+
+  /**
+   * Endpoint for rebuilding the in-memory index of which locations are occupied from the database.
+   * Needed if locations or their content have been changed outside the application.
+   *
+   * @return {@code 200 OK} once the index is rebuilt, or {@code 409 CONFLICT} if locations kept
+   * changing while it was rebuilt
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping("/occupancy/resync")
+  public ResponseEntity<String> resyncOccupancy() {
+    if (!this.locationService.resyncOccupancy()) {
+      return new ResponseEntity<>("Locations kept changing while the index was rebuilt, try again", HttpStatus.CONFLICT);
+    }
+    return new ResponseEntity<>(HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint for adding many locations at once from CSV, with a code and control digits on
+   * each line. The body is read as it arrives, so it can be as large as needed.
+   *
+   * @param body the CSV to import
+   * @return {@code 200 OK} with a summary of the import, listing the rows that were rejected.
+   * {@code 400 BAD_REQUEST} if the body could not be read
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping(value = "/import", consumes = "text/csv")
+  public ResponseEntity<ImportResult> importCsv(InputStream body) {
+    ResponseEntity<ImportResult> response;
+
+    try {
+      response = new ResponseEntity<>(this.locationImportService.importCsv(body), HttpStatus.OK);
+    } catch (IOException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for adding many locations at once from newline delimited JSON, with an object
+   * like {@code {"code": "H09", "controlDigits": 123}} on each line
+   *
+   * @param body the NDJSON to import
+   * @return {@code 200 OK} with a summary of the import, listing the rows that were rejected.
+   * {@code 400 BAD_REQUEST} if the body could not be read
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping(value = "/import", consumes = "application/x-ndjson")
+  public ResponseEntity<ImportResult> importNdjson(InputStream body) {
+    ResponseEntity<ImportResult> response;
+
+    try {
+      response = new ResponseEntity<>(this.locationImportService.importNdjson(body), HttpStatus.OK);
+    } catch (IOException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
 }
@@ -1,22 +1,47 @@
 package no.ntnu.bachelor.voicepick.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.dtos.ImportResult;
+import no.ntnu.bachelor.voicepick.dtos.ProductMatch;
+import no.ntnu.bachelor.voicepick.dtos.ProductPage;
+import no.ntnu.bachelor.voicepick.dtos.ProductQuantity;
+import no.ntnu.bachelor.voicepick.dtos.StockMovementRequest;
+import no.ntnu.bachelor.voicepick.services.ProductImportService;
 import no.ntnu.bachelor.voicepick.services.ProductService;
+import no.ntnu.bachelor.voicepick.services.StockMovementService;
 
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+  private static final int MAX_SEARCH_LIMIT = 100;
+
   private final ProductService service;
+  private final ProductImportService importService;
+  private final StockMovementService stockMovementService;
+  private final ObjectMapper objectMapper;
 
   /**
    * Endpoint for adding a new product
@@ -39,4 +64,158 @@ public class ProductController {
     return response;
   }
 
+  /**
+   * Endpoint for getting the products one page at a time, ordered by id
+   *
+   * @param cursor the {@code nextCursor} of the previous page. Left out for the first page
+   * @param limit the maximum number of products on the page
+   * @param available {@code true} to only get products that have a location and are in stock
+   * @return {@code 200 OK} with a page of products if everything is ok.
+   * {@code 400 BAD_REQUEST} if the limit is out of bounds
+   */
+  @GetMapping
+  public ResponseEntity<ProductPage> getProducts(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(defaultValue = "100") int limit,
+                                                 @RequestParam(defaultValue = "false") boolean available) {
+    ResponseEntity<ProductPage> response;
+
+    try {
+      response = new ResponseEntity<>(this.service.getProducts(cursor, limit, available), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for streaming every product as newline delimited JSON, ordered by id. The products
+   * are written as they are read from the database, so the whole catalogue can be read at once.
+   *
+   * @param available {@code true} to only get products that have a location and are in stock
+   * @return {@code 200 OK} with one product on each line
+   */
+  @GetMapping(produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamProducts(@RequestParam(defaultValue = "false") boolean available) {
+    StreamingResponseBody body = out -> this.service.forEachProduct(available, product -> {
+      try {
+        out.write(this.objectMapper.writeValueAsBytes(product));
+        out.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    return new ResponseEntity<>(body, HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint for recording a pick, receipt or adjustment of the stock of a product
+   *
+   * @param id of the product
+   * @param request the type of movement and its amount
+   * @return {@code 200 OK} with the quantity of the product after the movement if everything is ok.
+   * {@code 400 BAD_REQUEST} if the amount is not valid for the type of movement.
+   * {@code 404 NOT_FOUND} if no product was found with the id provided
+   */
+  @PostMapping("/{id}/movements")
+  public ResponseEntity<ProductQuantity> recordStockMovement(@PathVariable Long id,
+                                                             @RequestBody StockMovementRequest request) {
+    ResponseEntity<ProductQuantity> response;
+
+    try {
+      this.stockMovementService.record(id, request.getType(), request.getAmount());
+      response = new ResponseEntity<>(new ProductQuantity(id, this.stockMovementService.getQuantity(id)), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    } catch (EntityNotFoundException e) {
+      response = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for getting the current quantity of a product
+   *
+   * @param id of the product
+   * @return {@code 200 OK} with the quantity if everything is ok.
+   * {@code 404 NOT_FOUND} if no product was found with the id provided
+   */
+  @GetMapping("/{id}/quantity")
+  public ResponseEntity<ProductQuantity> getQuantity(@PathVariable Long id) {
+    ResponseEntity<ProductQuantity> response;
+
+    try {
+      response = new ResponseEntity<>(new ProductQuantity(id, this.stockMovementService.getQuantity(id)), HttpStatus.OK);
+    } catch (EntityNotFoundException e) {
+      response = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for searching for products by name. Names that are only partly or roughly right,
+   * like names heard by speech recognition, are found as well.
+   *
+   * @param query the name, or the start of the name, to search for
+   * @param limit the maximum number of names to return
+   * @return {@code 200 OK} with the names found and the products of each, best match first.
+   * {@code 400 BAD_REQUEST} if the query is blank or the limit is not between 1 and {@value #MAX_SEARCH_LIMIT}
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<ProductMatch>> searchProducts(@RequestParam("q") String query,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+    if (query.isBlank() || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return new ResponseEntity<>(this.service.searchProducts(query, limit), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint for adding many products at once from a JSON array of products, like a
+   * delivery being received. The body is read as it arrives, so it can be as large as needed.
+   *
+   * @param body the JSON array to import
+   * @return {@code 200 OK} with a summary of the import, listing the rows that were rejected.
+   * {@code 400 BAD_REQUEST} if the body could not be read or is not a JSON array
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping(value = "/import", consumes = "application/json")
+  public ResponseEntity<ImportResult> importJson(InputStream body) {
+    ResponseEntity<ImportResult> response;
+
+    try {
+      response = new ResponseEntity<>(this.importService.importJson(body), HttpStatus.OK);
+    } catch (IOException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Endpoint for adding many products at once from newline delimited JSON, with a product
+   * object on each line
+   *
+   * @param body the NDJSON to import
+   * @return {@code 200 OK} with a summary of the import, listing the rows that were rejected.
+   * {@code 400 BAD_REQUEST} if the body could not be read
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping(value = "/import", consumes = "application/x-ndjson")
+  public ResponseEntity<ImportResult> importNdjson(InputStream body) {
+    ResponseEntity<ImportResult> response;
+
+    try {
+      response = new ResponseEntity<>(this.importService.importNdjson(body), HttpStatus.OK);
+    } catch (IOException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
 }
@@ -3,10 +3,10 @@ package no.ntnu.bachelor.voicepick.dtos;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import no.ntnu.bachelor.voicepick.models.ProductType;
-import no.ntnu.bachelor.voicepick.models.Status;
 
 /**
- * A class containing information about a product
+ * A class containing information about a product. Its status is not given, since it
+ * follows the quantity
  * 
  * @author Joakim
  */
@@ -19,5 +19,4 @@ public class AddProductRequest {
   private double volume;
   private int quantity;
   private ProductType type;
-  private Status status;
 }
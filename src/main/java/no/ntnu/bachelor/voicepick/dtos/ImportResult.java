@@ -0,0 +1,20 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The outcome of a bulk import. Only the first rejected rows are listed in {@code errors},
+ * while {@code rejected} counts all of them.
+ */
+@Data
+@AllArgsConstructor
+public class ImportResult {
+  private int imported;
+  private int rejected;
+  private List<ImportRowError> errors;
+  private long elapsedMillis;
+  private double rowsPerSecond;
+}
@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A row of a bulk import that was rejected
+ */
+@Data
+@AllArgsConstructor
+public class ImportRowError {
+  private long row;
+  private String message;
+}
@@ -0,0 +1,18 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import no.ntnu.bachelor.voicepick.models.LocationEntity;
+
+/**
+ * A page of the entities stored at a location. The next page is fetched by passing
+ * {@code nextCursor} as the cursor, and it is {@code null} on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class LocationEntityPage {
+  private List<LocationEntity> entities;
+  private Long nextCursor;
+}
@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The number of times the wrong control digits were spoken at a location
+ */
+@Data
+@AllArgsConstructor
+public class LocationMismatches {
+  private String code;
+  private long mismatches;
+}
@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Whether the control digits spoken at a location were the right ones
+ */
+@Data
+@AllArgsConstructor
+public class LocationVerification {
+  private String code;
+  private boolean verified;
+}
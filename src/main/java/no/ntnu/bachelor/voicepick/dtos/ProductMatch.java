@@ -0,0 +1,17 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A product name found by a search, and the products with that name
+ */
+@Data
+@AllArgsConstructor
+public class ProductMatch {
+  private String name;
+  private double score;
+  private List<Long> productIds;
+}
@@ -0,0 +1,18 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import no.ntnu.bachelor.voicepick.models.Product;
+
+/**
+ * A page of the products. The next page is fetched by passing {@code nextCursor} as the
+ * cursor, and it is {@code null} on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPage {
+  private List<Product> products;
+  private Long nextCursor;
+}
@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The current quantity of a product
+ */
+@Data
+@AllArgsConstructor
+public class ProductQuantity {
+  private Long productId;
+  private int quantity;
+}
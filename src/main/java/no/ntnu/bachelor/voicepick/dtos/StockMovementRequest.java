@@ -0,0 +1,16 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import no.ntnu.bachelor.voicepick.models.StockMovementType;
+
+/**
+ * A change to the stock of a product. Picks and receipts are given as a positive amount,
+ * adjustments as the signed change to the quantity.
+ */
+@Data
+@AllArgsConstructor
+public class StockMovementRequest {
+  private StockMovementType type;
+  private int amount;
+}
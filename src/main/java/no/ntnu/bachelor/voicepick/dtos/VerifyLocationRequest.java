@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The control digits spoken by a picker to confirm that they are at a location
+ */
+@Data
+@AllArgsConstructor
+public class VerifyLocationRequest {
+  private String code;
+  private String controlDigits;
+}
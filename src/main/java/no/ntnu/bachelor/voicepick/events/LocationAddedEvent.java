@@ -0,0 +1,9 @@
+package no.ntnu.bachelor.voicepick.events;
+
+/**
+ * Published when a location is stored
+ *
+ * @param locationId the id of the location
+ */
+public record LocationAddedEvent(Long locationId) {
+}
@@ -0,0 +1,13 @@
+package no.ntnu.bachelor.voicepick.events;
+
+import no.ntnu.bachelor.voicepick.models.LocationEntity;
+
+/**
+ * Published when an entity is stored at, moved between or removed from locations
+ *
+ * @param type the type of the entity, like a product or a pluck list
+ * @param fromLocationId the id of the location the entity was at, or {@code null} if it was at none
+ * @param toLocationId the id of the location the entity is at now, or {@code null} if it is at none
+ */
+public record LocationEntityMovedEvent(Class<? extends LocationEntity> type, Long fromLocationId, Long toLocationId) {
+}
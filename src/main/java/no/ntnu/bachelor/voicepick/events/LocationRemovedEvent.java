@@ -0,0 +1,9 @@
+package no.ntnu.bachelor.voicepick.events;
+
+/**
+ * Published when a location is deleted
+ *
+ * @param locationId the id of the location
+ */
+public record LocationRemovedEvent(Long locationId) {
+}
@@ -0,0 +1,12 @@
+package no.ntnu.bachelor.voicepick.events;
+
+/**
+ * Published when the last of a product is taken, and its status goes from
+ * {@link no.ntnu.bachelor.voicepick.models.Status#READY} to {@link no.ntnu.bachelor.voicepick.models.Status#EMPTY}.
+ * Published once the transaction that made the change commits, so a change that is rolled
+ * back is never announced.
+ *
+ * @param productId the id of the product
+ */
+public record ProductEmptiedEvent(Long productId) {
+}
@@ -37,6 +37,7 @@ public class SecurityConfig {
             .requestMatchers("/auth/reset-password").authenticated()
             .requestMatchers("/auth/verify-email").authenticated()
             .requestMatchers("/auth/invite-code").hasAnyRole("LEADER","ADMIN")
+            .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasAnyRole("LEADER","ADMIN")
             .anyRequest().permitAll())
         .oauth2ResourceServer()
         .jwt()
@@ -2,16 +2,25 @@ package no.ntnu.bachelor.voicepick.features.pluck.controllers;
 
 import jakarta.persistence.EntityNotFoundException;
 import no.ntnu.bachelor.voicepick.features.pluck.dtos.CargoCarrierDto;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.GeneratePluckListsRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckListDetails;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckListSummary;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckProgressDto;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckProgressResult;
 import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import java.util.List;
+
 import lombok.RequiredArgsConstructor;
 import no.ntnu.bachelor.voicepick.exceptions.EmptyListException;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListPoolService;
 import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
 
 @RestController
@@ -20,16 +29,24 @@ import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
 public class PluckListController {
 
   private final PluckListService pluckListService;
+  private final PluckListPoolService pluckListPoolService;
 
   /**
-   * Returns a randomly generated pluck list
+   * Returns a randomly generated pluck list. A pre-generated pluck list is handed out
+   * if there is one ready in the pool, unless a seed is given.
    * 
+   * @param seed optional seed to generate the pluck list from. The same seed gives the same
+   *             pluck list, so load tests can be replayed
    * @return {@code 200 OK} if ok, {@code 500 INTERNAL_SERVER_ERROR} if something goes wrong
    */
   @GetMapping
-  public ResponseEntity<PluckList> getRandomPluckList(@RequestHeader("Authorization") String token) {
+  public ResponseEntity<PluckList> getRandomPluckList(@RequestHeader("Authorization") String token,
+                                                      @RequestParam(required = false) Long seed) {
     try {
-      return new ResponseEntity<>(this.pluckListService.generateRandomPluckList(token), HttpStatus.OK);
+      var pluckList = seed == null
+          ? this.pluckListPoolService.claim(token)
+          : this.pluckListService.generateRandomPluckList(token, seed);
+      return new ResponseEntity<>(pluckList, HttpStatus.OK);
     } catch (EmptyListException e) {
       return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     } catch (EntityNotFoundException e) {
@@ -39,11 +56,65 @@ public class PluckListController {
     }
   }
 
+  /**
+   * Generates a wave of unassigned pluck lists for a route. The pluck lists are handed out
+   * to pickers through the pluck list pool.
+   *
+   * @param request containing the route and number of pluck lists to generate
+   * @return {@code 200 OK} with a summary of each pluck list generated, {@code 204 NO_CONTENT}
+   * if there are no products or locations available, {@code 400 BAD_REQUEST} if the route is
+   * unknown or the count is out of range
+   */
+  @PreAuthorize("hasAnyRole('ADMIN', 'LEADER')")
+  @PostMapping("/batch")
+  public ResponseEntity<List<PluckListSummary>> generatePluckLists(@RequestBody GeneratePluckListsRequest request) {
+    ResponseEntity<List<PluckListSummary>> response;
+
+    try {
+      var summaries = this.pluckListService.generatePluckLists(request.getRoute(), request.getCount());
+      this.pluckListPoolService.offer(request.getRoute(), summaries.stream().map(PluckListSummary::getId).toList());
+      response = new ResponseEntity<>(summaries, HttpStatus.OK);
+    } catch (EmptyListException e) {
+      response = new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Reports progress for a batch of plucks. Each pluck can be given when it was confirmed,
+   * when it was plucked, or both. Pluck lists where the last pluck is plucked are finished.
+   *
+   * @param progress reported for each pluck
+   * @return {@code 200 OK} with how many plucks were updated and which pluck lists were finished,
+   * {@code 400 BAD_REQUEST} if a pluck id is missing or the batch is too large
+   */
+  @PatchMapping
+  public ResponseEntity<PluckProgressResult> updateProgress(@RequestBody List<PluckProgressDto> progress) {
+    ResponseEntity<PluckProgressResult> response;
+
+    try {
+      response = new ResponseEntity<>(this.pluckListService.updateProgress(progress), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      response = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return response;
+  }
+
+  /**
+   * Returns a pluck list with its plucks, products and locations
+   *
+   * @param id of the pluck list
+   * @return {@code 200 OK} with the pluck list, {@code 400 BAD_REQUEST} if it was not found
+   */
   @GetMapping("/{id}")
-  public ResponseEntity<PluckList> getPluckListById(@PathVariable Long id) {
-    ResponseEntity<PluckList> response;
+  public ResponseEntity<PluckListDetails> getPluckListById(@PathVariable Long id) {
+    ResponseEntity<PluckListDetails> response;
 
-    var pluckListOpt = this.pluckListService.findById(id);
+    var pluckListOpt = this.pluckListService.findDetailsById(id);
     response = pluckListOpt.map(pluckList -> new ResponseEntity<>(pluckList, HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(HttpStatus.BAD_REQUEST));
 
     return response;
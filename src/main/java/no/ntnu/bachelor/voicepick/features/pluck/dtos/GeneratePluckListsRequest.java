@@ -0,0 +1,14 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A request for generating a wave of pluck lists for a route
+ */
+@Data
+@AllArgsConstructor
+public class GeneratePluckListsRequest {
+  private String route;
+  private int count;
+}
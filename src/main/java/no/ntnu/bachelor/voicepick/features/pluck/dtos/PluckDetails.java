@@ -0,0 +1,26 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+
+/**
+ * A pluck of a {@link PluckListDetails}, with the product and where it is located
+ */
+@Data
+@AllArgsConstructor
+public class PluckDetails {
+  private Long id;
+  private int amount;
+  private LocalDateTime confirmedAt;
+  private LocalDateTime pluckedAt;
+  private Long productId;
+  private String productName;
+  private ProductType productType;
+  private double weight;
+  private double volume;
+  private String location;
+  private Integer controlDigits;
+}
@@ -0,0 +1,24 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A pluck list with the plucks and locations a handheld needs to work through it, without
+ * the user, or other pluck lists reached through the related entities
+ */
+@Data
+@AllArgsConstructor
+public class PluckListDetails {
+  private Long id;
+  private String route;
+  private String destination;
+  private String location;
+  private LocalDateTime confirmedAt;
+  private LocalDateTime finishedAt;
+  private CargoCarrierDto cargoCarrier;
+  private List<PluckDetails> plucks;
+}
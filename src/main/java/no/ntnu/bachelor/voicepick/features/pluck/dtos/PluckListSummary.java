@@ -0,0 +1,27 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+
+/**
+ * A compact summary of a pluck list, without the plucks and related entities
+ */
+@Data
+@AllArgsConstructor
+public class PluckListSummary {
+  private Long id;
+  private String route;
+  private String destination;
+  private String location;
+  private int numberOfPlucks;
+
+  public PluckListSummary(PluckList pluckList) {
+    this(
+        pluckList.getId(),
+        pluckList.getRoute(),
+        pluckList.getDestination(),
+        pluckList.getLocation() != null ? pluckList.getLocation().getCode() : null,
+        pluckList.getPlucks().size());
+  }
+}
@@ -0,0 +1,17 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Progress reported for a pluck. A timestamp that is {@code null} is left as it is
+ */
+@Data
+@AllArgsConstructor
+public class PluckProgressDto {
+  private Long id;
+  private LocalDateTime confirmedAt;
+  private LocalDateTime pluckedAt;
+}
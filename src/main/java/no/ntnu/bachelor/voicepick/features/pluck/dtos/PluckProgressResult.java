@@ -0,0 +1,17 @@
+package no.ntnu.bachelor.voicepick.features.pluck.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The outcome of reporting progress for a batch of plucks
+ */
+@Data
+@AllArgsConstructor
+public class PluckProgressResult {
+  private int confirmed;
+  private int plucked;
+  private List<Long> finishedPluckLists;
+}
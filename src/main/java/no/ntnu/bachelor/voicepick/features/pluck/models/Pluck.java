@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -32,9 +33,11 @@ public class Pluck {
 
   public static final String TABLE_NAME = "pluck";
   public static final String PRIMARY_KEY = "pluck_id";
+  public static final String SEQUENCE_NAME = "pluck_seq";
 
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Pluck.SEQUENCE_NAME)
+  @SequenceGenerator(name = Pluck.SEQUENCE_NAME, sequenceName = Pluck.SEQUENCE_NAME, allocationSize = 50)
   @Column(name = Pluck.PRIMARY_KEY)
   private Long id;
 
@@ -54,6 +57,12 @@ public class Pluck {
   @Column(name = "plucked_at")
   private LocalDateTime pluckedAt;
 
+  /**
+   * The place of the pluck in the walk through its pluck list
+   */
+  @Column(name = "sequence_number")
+  private Integer sequence;
+
   @JsonBackReference
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = PluckList.PRIMARY_KEY)
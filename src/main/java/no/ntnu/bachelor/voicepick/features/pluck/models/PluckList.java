@@ -1,7 +1,7 @@
 package no.ntnu.bachelor.voicepick.features.pluck.models;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.hibernate.annotations.OnDelete;
@@ -30,11 +30,6 @@ public class PluckList extends LocationEntity {
   public static final String TABLE_NAME = "pluck_list";
   public static final String PRIMARY_KEY = "pluck_list_id";
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
-  @Column(name = PluckList.PRIMARY_KEY)
-  private Long id;
-
   @Column(name = "route")
   private String route;
 
@@ -47,9 +42,13 @@ public class PluckList extends LocationEntity {
   @Column(name = "finished_at")
   private LocalDateTime finishedAt;
 
+  /**
+   * In walk order, both when loaded and when added by a new pluck list
+   */
   @JsonManagedReference
   @OneToMany(mappedBy = "pluckList")
-  private Set<Pluck> plucks = new HashSet<>();
+  @OrderBy("sequence ASC, id ASC")
+  private Set<Pluck> plucks = new LinkedHashSet<>();
 
   @JsonManagedReference
   @ManyToOne(optional = true, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
@@ -68,7 +67,7 @@ public class PluckList extends LocationEntity {
   }
 
   /**
-   * Adds a pluck to the pluck list
+   * Adds a pluck to the end of the pluck list
    *
    * @param pluck to be added
    */
@@ -0,0 +1,21 @@
+package no.ntnu.bachelor.voicepick.features.pluck.repositories;
+
+/**
+ * Native queries of {@link PluckListRepository} that depend on how location entities are stored,
+ * see {@link no.ntnu.bachelor.voicepick.models.LocationEntityMapping}
+ */
+public interface PluckListNativeQueries {
+
+    /**
+     * Assigns a pluck list to a user if it is not assigned to anyone, with one conditional
+     * update. Two users claiming the same pluck list at once can never both get it, since the
+     * second update finds the pluck list assigned once the first one commits.
+     *
+     * @param id of the pluck list
+     * @param userId of the user to assign it to
+     * @return {@code 1} if the pluck list was assigned, {@code 0} if it was not found or is
+     * already assigned
+     */
+    int assignIfUnassigned(Long id, String userId);
+
+}
@@ -0,0 +1,29 @@
+package no.ntnu.bachelor.voicepick.features.pluck.repositories;
+
+import jakarta.persistence.EntityManager;
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import org.springframework.beans.factory.annotation.Value;
+
+class PluckListNativeQueriesImpl implements PluckListNativeQueries {
+
+    private final EntityManager entityManager;
+    private final LocationEntityMapping mapping;
+
+    PluckListNativeQueriesImpl(EntityManager entityManager,
+                               @Value("${location-entity.mapping:JOINED}") LocationEntityMapping mapping) {
+        this.entityManager = entityManager;
+        this.mapping = mapping;
+    }
+
+    @Override
+    public int assignIfUnassigned(Long id, String userId) {
+        return this.entityManager.createNativeQuery("UPDATE " + this.mapping.tableOf(PluckList.class) +
+                        " SET " + User.PRIMARY_KEY + " = :userId WHERE id = :id AND " + User.PRIMARY_KEY + " IS NULL")
+                .setParameter("userId", userId)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+}
@@ -1,14 +1,78 @@
 package no.ntnu.bachelor.voicepick.features.pluck.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import jakarta.persistence.Tuple;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import no.ntnu.bachelor.voicepick.features.authentication.models.User;
 import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
 
-public interface PluckListRepository extends JpaRepository<PluckList, Long> {
+public interface PluckListRepository extends JpaRepository<PluckList, Long>, PluckListNativeQueries {
 
     public List<PluckList> findByUser(User user);
 
+    @Query("SELECT p.id FROM PluckList p WHERE p.user IS NULL AND p.confirmedAt IS NULL AND p.route = :route")
+    public List<Long> findUnassignedIdsByRoute(@Param("route") String route);
+
+    /**
+     * Returns a pluck list with its plucks, products and locations in one query, as one row
+     * for each pluck. Only the columns that are selected are read, so none of the eager
+     * relations of the entities are loaded.
+     *
+     * @param id of the pluck list
+     * @return a row for each pluck in walk order, or a single row without pluck columns
+     * if the pluck list has no plucks. Empty if the pluck list is not found
+     */
+    @Query("SELECT l.id AS id, l.route AS route, l.destination AS destination, loc.code AS location, " +
+            "l.confirmedAt AS confirmedAt, l.finishedAt AS finishedAt, " +
+            "c.name AS cargoCarrierName, c.identifier AS cargoCarrierIdentifier, " +
+            "c.phoneticIdentifier AS cargoCarrierPhoneticIdentifier, " +
+            "p.id AS pluckId, p.amount AS amount, p.confirmedAt AS pluckConfirmedAt, p.pluckedAt AS pluckedAt, " +
+            "pr.id AS productId, pr.name AS productName, pr.type AS productType, pr.weight AS weight, " +
+            "pr.volume AS volume, prLoc.code AS productLocation, prLoc.controlDigits AS controlDigits " +
+            "FROM PluckList l LEFT JOIN l.location loc LEFT JOIN l.cargoCarrier c LEFT JOIN l.plucks p " +
+            "LEFT JOIN p.product pr LEFT JOIN pr.location prLoc " +
+            "WHERE l.id = :id ORDER BY p.sequence, p.id")
+    public List<Tuple> findDetailsById(@Param("id") Long id);
+
+    /**
+     * Returns the ids of the unfinished pluck lists holding any of the given plucks, where
+     * every pluck has been plucked
+     *
+     * @param pluckIds of the plucks to find pluck lists for
+     * @return a list of pluck list ids
+     */
+    @Query("SELECT DISTINCT p.pluckList.id FROM Pluck p WHERE p.id IN :pluckIds AND p.pluckList.finishedAt IS NULL " +
+            "AND NOT EXISTS (SELECT o FROM Pluck o WHERE o.pluckList = p.pluckList AND o.pluckedAt IS NULL)")
+    public List<Long> findCompletedIdsByPluckIds(@Param("pluckIds") Collection<Long> pluckIds);
+
+    /**
+     * Sets the pluck lists with the given ids as confirmed when their first pluck was confirmed,
+     * unless they already are
+     *
+     * @param ids of the pluck lists to confirm
+     * @return the number of pluck lists updated
+     */
+    @Modifying
+    @Query("UPDATE PluckList l SET l.confirmedAt = (SELECT MIN(p.confirmedAt) FROM Pluck p WHERE p.pluckList = l) " +
+            "WHERE l.id IN :ids AND l.confirmedAt IS NULL")
+    public int confirmAll(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sets the pluck lists with the given ids as finished when their last pluck was plucked
+     *
+     * @param ids of the pluck lists to finish
+     * @return the number of pluck lists updated
+     */
+    @Modifying
+    @Query("UPDATE PluckList l SET l.finishedAt = (SELECT MAX(p.pluckedAt) FROM Pluck p WHERE p.pluckList = l) " +
+            "WHERE l.id IN :ids")
+    public int finishAll(@Param("ids") Collection<Long> ids);
+
 }
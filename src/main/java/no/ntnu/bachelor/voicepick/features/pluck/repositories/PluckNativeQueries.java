@@ -0,0 +1,21 @@
+package no.ntnu.bachelor.voicepick.features.pluck.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Native queries of {@link PluckRepository} that are built for the plucks they update
+ */
+public interface PluckNativeQueries {
+
+  /**
+   * Sets when each of the given plucks was confirmed and plucked, with a single update statement
+   * however many plucks there are. A pluck left out of one of the maps keeps the timestamp it has.
+   *
+   * @param confirmedAt when each pluck was confirmed, by pluck id
+   * @param pluckedAt when each pluck was plucked, by pluck id
+   * @return the number of plucks updated
+   */
+  int updateProgress(Map<Long, LocalDateTime> confirmedAt, Map<Long, LocalDateTime> pluckedAt);
+
+}
@@ -0,0 +1,64 @@
+package no.ntnu.bachelor.voicepick.features.pluck.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
+
+@RequiredArgsConstructor
+class PluckNativeQueriesImpl implements PluckNativeQueries {
+
+  private final EntityManager entityManager;
+
+  @Override
+  public int updateProgress(Map<Long, LocalDateTime> confirmedAt, Map<Long, LocalDateTime> pluckedAt) {
+    var ids = new TreeSet<Long>(confirmedAt.keySet());
+    ids.addAll(pluckedAt.keySet());
+    if (ids.isEmpty()) {
+      return 0;
+    }
+
+    var parameters = new ArrayList<Object>(2 * (confirmedAt.size() + pluckedAt.size()) + ids.size());
+    var sql = new StringBuilder("UPDATE ").append(Pluck.TABLE_NAME).append(" SET confirmed_at = ");
+    appendCase(sql, "confirmed_at", confirmedAt, parameters);
+    sql.append(", plucked_at = ");
+    appendCase(sql, "plucked_at", pluckedAt, parameters);
+    sql.append(" WHERE ").append(Pluck.PRIMARY_KEY).append(" IN (")
+        .append(String.join(", ", Collections.nCopies(ids.size(), "?"))).append(')');
+    parameters.addAll(ids);
+
+    var query = this.entityManager.createNativeQuery(sql.toString());
+    for (var i = 0; i < parameters.size(); i++) {
+      query.setParameter(i + 1, parameters.get(i));
+    }
+
+    return query.executeUpdate();
+  }
+
+  /**
+   * Appends a {@code CASE} picking the value of a column for each pluck, or the value it has
+   * for plucks without one
+   */
+  private static void appendCase(StringBuilder sql, String column, Map<Long, LocalDateTime> values,
+                                 List<Object> parameters) {
+    if (values.isEmpty()) {
+      sql.append(column);
+      return;
+    }
+
+    sql.append("CASE ").append(Pluck.PRIMARY_KEY);
+    values.forEach((id, value) -> {
+      sql.append(" WHEN ? THEN ?");
+      parameters.add(id);
+      parameters.add(value);
+    });
+    sql.append(" ELSE ").append(column).append(" END");
+  }
+
+}
@@ -1,9 +1,40 @@
 package no.ntnu.bachelor.voicepick.features.pluck.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
 import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
 
-public interface PluckRepository extends JpaRepository<Pluck, Long> {
+public interface PluckRepository extends JpaRepository<Pluck, Long>, PluckNativeQueries {
+
+  /**
+   * The progress of a pluck at the time it was read
+   */
+  interface PluckProgress {
+    Long getId();
+    Long getPluckListId();
+    LocalDateTime getConfirmedAt();
+    LocalDateTime getPluckedAt();
+  }
+
+  /**
+   * Locks the plucks with the given ids, and returns how far they have come. The locks are held
+   * until the transaction ends, so progress reported for the same pluck twice at once is only
+   * counted once.
+   *
+   * @param ids of the plucks to lock
+   * @return the progress of each pluck found, ordered by id
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p.id AS id, p.pluckList.id AS pluckListId, p.confirmedAt AS confirmedAt, p.pluckedAt AS pluckedAt " +
+      "FROM Pluck p WHERE p.id IN :ids ORDER BY p.id")
+  List<PluckProgress> lockProgress(@Param("ids") Collection<Long> ids);
 
 }
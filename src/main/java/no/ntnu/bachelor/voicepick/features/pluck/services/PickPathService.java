@@ -0,0 +1,95 @@
+package no.ntnu.bachelor.voicepick.features.pluck.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.PickPathSequencer;
+
+/**
+ * Puts the plucks of a pluck list in the order a picker should walk to them, using
+ * {@link PickPathSequencer}. The walk for each set of locations is cached, since the same
+ * locations come up again and again for popular products.
+ */
+@Service
+public class PickPathService {
+
+  private final boolean twoOpt;
+  private final Map<List<String>, List<String>> walks;
+
+  public PickPathService(@Value("${pluck-list.sequencing.two-opt:false}") boolean twoOpt,
+                         @Value("${pluck-list.sequencing.cache-size:1000}") int cacheSize) {
+    this.twoOpt = twoOpt;
+    this.walks = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<String>, List<String>> eldest) {
+        return this.size() > cacheSize;
+      }
+    });
+  }
+
+  /**
+   * Orders plucks in walk order, and sets the sequence of each pluck to its place in the walk
+   *
+   * @param plucks to order
+   * @return the plucks in walk order. Plucks at the same location are kept together, and plucks
+   * of products without a location come last
+   */
+  public List<Pluck> sequence(Collection<Pluck> plucks) {
+    var codes = plucks.stream()
+        .map(PickPathService::codeOf)
+        .filter(Objects::nonNull)
+        .collect(TreeSet<String>::new, TreeSet::add, TreeSet::addAll);
+
+    var walk = this.walk(List.copyOf(codes));
+    var positions = new HashMap<String, Integer>(walk.size() * 2);
+    for (var i = 0; i < walk.size(); i++) {
+      positions.put(walk.get(i), i);
+    }
+
+    var ordered = plucks.stream()
+        .sorted(Comparator.comparing((Pluck pluck) -> positions.getOrDefault(codeOf(pluck), Integer.MAX_VALUE))
+            .thenComparing(Pluck::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+        .toList();
+
+    for (var i = 0; i < ordered.size(); i++) {
+      ordered.get(i).setSequence(i);
+    }
+
+    return ordered;
+  }
+
+  /**
+   * Returns the walk through a sorted list of distinct location codes, from the cache if
+   * the same locations have been walked before
+   */
+  private List<String> walk(List<String> codes) {
+    var walk = this.walks.get(codes);
+    if (walk == null) {
+      walk = List.copyOf(PickPathSequencer.sequence(codes, this.twoOpt));
+      this.walks.put(codes, walk);
+    }
+
+    return walk;
+  }
+
+  private static String codeOf(Pluck pluck) {
+    var product = pluck.getProduct();
+    if (product == null || product.getLocation() == null) {
+      return null;
+    }
+
+    return product.getLocation().getCode();
+  }
+
+}
@@ -0,0 +1,192 @@
+package no.ntnu.bachelor.voicepick.features.pluck.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.exceptions.EmptyListException;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+
+/**
+ * Keeps a pool of pre-generated pluck lists for each route, so a picker asking for a pluck
+ * list only has to claim one instead of generating it. The pools are refilled in the
+ * background up to {@code pluck-list.pool.high-water-mark} lists per route. A high-water
+ * mark of zero disables the pool, and every pluck list is then generated on request.
+ */
+@Service
+@RequiredArgsConstructor
+public class PluckListPoolService {
+
+  private static final String METRIC_PREFIX = "pluck-list.pool";
+
+  private final PluckListService pluckListService;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${pluck-list.pool.high-water-mark:0}")
+  private int highWaterMark;
+
+  private final List<RoutePool> pools = new ArrayList<>();
+  private Timer pooledClaims;
+  private Timer generatedClaims;
+
+  /**
+   * The ids of the pooled pluck lists for one route
+   */
+  private record RoutePool(int routeIndex, String route, BlockingQueue<Long> ids, Counter refills) {
+  }
+
+  @PostConstruct
+  void init() {
+    this.pooledClaims = this.claimTimer("pool");
+    this.generatedClaims = this.claimTimer("generated");
+
+    if (!this.isEnabled()) {
+      return;
+    }
+
+    var routes = this.pluckListService.getRoutes();
+    for (var i = 0; i < routes.size(); i++) {
+      var route = routes.get(i);
+
+      // Pluck lists from a previous run that were never claimed are reused
+      var ids = new LinkedBlockingQueue<>(this.pluckListService.findUnassignedIds(route));
+      var refills = Counter.builder(METRIC_PREFIX + ".refills")
+          .description("Pluck lists generated to refill the pool")
+          .tag("route", route)
+          .register(this.meterRegistry);
+      Gauge.builder(METRIC_PREFIX + ".depth", ids, BlockingQueue::size)
+          .description("Pluck lists ready to be claimed")
+          .tag("route", route)
+          .register(this.meterRegistry);
+
+      this.pools.add(new RoutePool(i, route, ids, refills));
+    }
+  }
+
+  private Timer claimTimer(String source) {
+    return Timer.builder(METRIC_PREFIX + ".claims")
+        .description("Time taken to hand out a pluck list")
+        .tag("source", source)
+        .register(this.meterRegistry);
+  }
+
+  /**
+   * Returns whether pluck lists are pooled or not
+   *
+   * @return {@code true} if the pool is enabled, {@code false} otherwise
+   */
+  public boolean isEnabled() {
+    return this.highWaterMark > 0;
+  }
+
+  /**
+   * Returns the number of pooled pluck lists for a route
+   *
+   * @param route to get the number of pluck lists for
+   * @return the number of pluck lists ready to be claimed
+   */
+  public int getDepth(String route) {
+    return this.pools.stream()
+        .filter(pool -> pool.route().equals(route))
+        .findFirst()
+        .map(pool -> pool.ids().size())
+        .orElse(0);
+  }
+
+  /**
+   * Adds pluck lists that are already generated to the pool of a route. Does nothing
+   * if the pool is disabled.
+   *
+   * @param route the pluck lists are generated for
+   * @param ids of the unassigned pluck lists to add
+   */
+  public void offer(String route, List<Long> ids) {
+    this.pools.stream()
+        .filter(pool -> pool.route().equals(route))
+        .findFirst()
+        .ifPresent(pool -> pool.ids().addAll(ids));
+  }
+
+  /**
+   * Claims a pooled pluck list for a random route and assigns it to the user of the token.
+   * If all pools are empty, a new pluck list is generated instead.
+   *
+   * @param token of the user to assign the pluck list to
+   * @return the claimed pluck list
+   * @throws EmptyListException if a pluck list had to be generated but there are no
+   *                            available products or locations
+   * @throws JsonProcessingException if the token could not be parsed
+   */
+  public PluckList claim(String token) throws EmptyListException, JsonProcessingException {
+    var sample = Timer.start(this.meterRegistry);
+
+    var claimed = this.claimPooled(token);
+    if (claimed.isPresent()) {
+      sample.stop(this.pooledClaims);
+      return claimed.get();
+    }
+
+    var generated = this.pluckListService.generateRandomPluckList(token);
+    sample.stop(this.generatedClaims);
+
+    return generated;
+  }
+
+  private Optional<PluckList> claimPooled(String token) throws JsonProcessingException {
+    if (this.pools.isEmpty()) {
+      return Optional.empty();
+    }
+
+    // Start at a random route, and move on to the next one if it is empty
+    var start = ThreadLocalRandom.current().nextInt(this.pools.size());
+    for (var i = 0; i < this.pools.size(); i++) {
+      var pool = this.pools.get((start + i) % this.pools.size());
+
+      Long id;
+      while ((id = pool.ids().poll()) != null) {
+        // The pluck list may have been removed or assigned since it was pooled
+        var claimed = this.pluckListService.assignPluckList(id, token);
+        if (claimed.isPresent()) {
+          return claimed;
+        }
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Generates pluck lists for every route until each pool is filled up to the high-water mark
+   */
+  @Scheduled(fixedDelayString = "${pluck-list.pool.refill-interval:5000}")
+  public void refill() {
+    for (var pool : this.pools) {
+      while (pool.ids().size() < this.highWaterMark) {
+        try {
+          var pluckList = this.pluckListService.generatePluckList(pool.routeIndex(), null);
+          pool.ids().add(pluckList.getId());
+          pool.refills().increment();
+        } catch (EmptyListException e) {
+          // Nothing to generate pluck lists from, try again on the next refill
+          return;
+        }
+      }
+    }
+  }
+
+}
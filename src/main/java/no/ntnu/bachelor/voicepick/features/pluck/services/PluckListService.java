@@ -2,15 +2,30 @@ package no.ntnu.bachelor.voicepick.features.pluck.services;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.random.RandomGenerator;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
 import no.ntnu.bachelor.voicepick.features.authentication.services.UserService;
 import no.ntnu.bachelor.voicepick.features.authentication.utils.JwtUtil;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.CargoCarrierDto;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckDetails;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckListDetails;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckListSummary;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckProgressDto;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckProgressResult;
 import no.ntnu.bachelor.voicepick.features.pluck.models.CargoCarrier;
 import no.ntnu.bachelor.voicepick.features.pluck.repositories.CargoCarrierRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSampler;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSource;
+import no.ntnu.bachelor.voicepick.models.Location;
 import no.ntnu.bachelor.voicepick.services.LocationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -21,6 +36,7 @@ import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
 import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
 import no.ntnu.bachelor.voicepick.features.pluck.repositories.PluckListRepository;
 import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.ProductType;
 import no.ntnu.bachelor.voicepick.services.ProductService;
 
 /**
@@ -37,13 +53,43 @@ public class PluckListService {
   private final CargoCarrierRepository cargoCarrierRepository;
   private final JwtUtil jwt;
   private final LocationService locationService;
+  private final RandomSource randomSource;
+  private final StockReservationService stockReservationService;
+  private final PickPathService pickPathService;
 
-  private final Random random = new Random();
+  /*
+   * Where the random products and location of a generated pluck list are picked
+   */
+  public enum SamplingStrategy {
+    /** Let the database pick by probing random ids, only loading the rows that are used */
+    DATABASE,
+    /** Load all candidates and pick among them in memory */
+    IN_MEMORY,
+    /** Pick locations from the in-memory occupancy index, and products like {@code DATABASE} */
+    INDEX
+  }
+
+  @Value("${pluck-list.sampling-strategy:DATABASE}")
+  private SamplingStrategy samplingStrategy;
+
+  /**
+   * The generator to draw from while generating pluck lists, and whether the draws have to be
+   * reproducible. Random ids pick different rows in databases whose rows have different ids or
+   * gaps between them, so reproducible draws pick rows by their position in id order instead,
+   * whatever the sampling strategy.
+   */
+  private record Draw(RandomGenerator random, boolean reproducible) {
+  }
 
   private static final String[] ROUTES = { "1234", "3453", "6859", "3423", "0985", "1352" };
   private static final String[] DESTINATIONS = { "Bunnpris Torghallen", "Kiwi Sundgata", "Kiwi Nedre Strandgate", "Rema 1000 Strandgata",
           "Afrin Dagligvare Ålesund AS", "Olivers & CO Ålesund" };
 
+  private static final int MAX_PLUCK_AMOUNT = 10;
+  private static final int PLUCK_AMOUNT_UPPER_BOUND = 10;
+  private static final int MAX_WAVE_SIZE = 100;
+  private static final int MAX_PROGRESS_BATCH = 1000;
+
   /**
    * Returns a pluck list based on id
    *
@@ -56,98 +102,411 @@ public class PluckListService {
   }
 
   /**
-   * Generates random pluck list
+   * Returns the details of a pluck list a handheld needs, read with a single query
+   *
+   * @param id of the pluck list to find
+   * @return optional containing the details if the pluck list was found. If not,
+   * an empty optional is returned
+   */
+  public Optional<PluckListDetails> findDetailsById(Long id) {
+    var rows = this.pluckListRepository.findDetailsById(id);
+    if (rows.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var first = rows.get(0);
+    var cargoCarrier = first.get("cargoCarrierIdentifier") == null ? null : new CargoCarrierDto(
+        first.get("cargoCarrierName", String.class),
+        first.get("cargoCarrierIdentifier", Long.class),
+        first.get("cargoCarrierPhoneticIdentifier", String.class));
+
+    var plucks = rows.stream()
+        .filter(row -> row.get("pluckId") != null)
+        .map(PluckListService::toPluckDetails)
+        .toList();
+
+    return Optional.of(new PluckListDetails(
+        first.get("id", Long.class),
+        first.get("route", String.class),
+        first.get("destination", String.class),
+        first.get("location", String.class),
+        first.get("confirmedAt", LocalDateTime.class),
+        first.get("finishedAt", LocalDateTime.class),
+        cargoCarrier,
+        plucks));
+  }
+
+  private static PluckDetails toPluckDetails(Tuple row) {
+    return new PluckDetails(
+        row.get("pluckId", Long.class),
+        row.get("amount", Integer.class),
+        row.get("pluckConfirmedAt", LocalDateTime.class),
+        row.get("pluckedAt", LocalDateTime.class),
+        row.get("productId", Long.class),
+        row.get("productName", String.class),
+        row.get("productType", ProductType.class),
+        row.get("weight", Double.class),
+        row.get("volume", Double.class),
+        row.get("productLocation", String.class),
+        row.get("controlDigits", Integer.class));
+  }
+
+  /**
+   * Returns the routes pluck lists are generated for
+   *
+   * @return a list of all routes
+   */
+  public List<String> getRoutes() {
+    return List.of(ROUTES);
+  }
+
+  /**
+   * Generates random pluck list. The pluck list and its plucks are written in one
+   * transaction, with the inserts for each table sent as one JDBC batch. The stock
+   * plucked is reserved in the same transaction.
    * 
    * @throws EmptyListException if there are no available products stored in the
    *                            repository
    * @throws JsonProcessingException
    */
+  @Transactional(rollbackFor = { EmptyListException.class, JsonProcessingException.class })
   public PluckList generateRandomPluckList(String token) throws EmptyListException, JsonProcessingException {
-    
-    String userId = jwt.getUid(token);
-      
-    var optionalUser = this.userService.getUserById(userId);
+    return this.generateRandomPluckList(token, null);
+  }
 
-    if (optionalUser.isEmpty()) {
-      throw new EntityNotFoundException("User not found; " + userId);
-    }
+  /**
+   * Generates random pluck list. If a seed is given, the same seed gives the same route,
+   * location, products and amounts every time, as long as the stored products and
+   * locations do not change.
+   *
+   * @param token of the user to assign the pluck list to
+   * @param seed to draw from, or {@code null} to use the configured randomness
+   * @throws EmptyListException if there are no available products stored in the
+   *                            repository
+   * @throws JsonProcessingException
+   */
+  @Transactional(rollbackFor = { EmptyListException.class, JsonProcessingException.class })
+  public PluckList generateRandomPluckList(String token, Long seed) throws EmptyListException, JsonProcessingException {
+    var user = this.getUser(token);
 
+    var draw = seed == null ? this.newDraw() : new Draw(this.randomSource.withSeed(seed), true);
+    return this.generatePluckList(draw.random().nextInt(ROUTES.length), user, draw);
+  }
 
-    // Make sure there are location available
-    var locations = this.locationService.getAllPluckListLocations();
-    if (locations.isEmpty()) {
-      throw new EmptyListException("No available locations");
-    }
+  /**
+   * Generates a random pluck list for a given route
+   *
+   * @param routeIndex index of the route in {@link #getRoutes()}
+   * @param user the pluck list is assigned to. Can be {@code null} for a pluck list
+   *             that is assigned later
+   * @return the generated pluck list
+   * @throws EmptyListException if there are no available products or locations
+   */
+  @Transactional(rollbackFor = EmptyListException.class)
+  public PluckList generatePluckList(int routeIndex, User user) throws EmptyListException {
+    return this.generatePluckList(routeIndex, user, this.newDraw());
+  }
 
-    // Generate a random pluck list
-    var randomDestinationIndex = random.nextInt(DESTINATIONS.length);
-    var pluckList = new PluckList(
-        ROUTES[randomDestinationIndex],
-        DESTINATIONS[randomDestinationIndex],
-        optionalUser.get()
-        );
+  private PluckList generatePluckList(int routeIndex, User user, Draw draw) throws EmptyListException {
+    // Make sure there are location and products available
+    var randomLocation = this.pickRandomLocations(1, draw).get(0);
+    var productsToPluck = this.stockReservationService.lockInStock(
+        this.pickRandomProducts(draw.random().nextInt(MAX_PLUCK_AMOUNT) + 1, draw));
+    if (productsToPluck.isEmpty()) {
+      throw new EmptyListException("No products in stock");
+    }
 
-    // Add pluck list to random location
-    var randomLocation = locations.get(random.nextInt(locations.size()));
-    randomLocation.addEntity(pluckList);
+    var plucks = new ArrayList<Pluck>(productsToPluck.size());
+    var pluckList = this.buildPluckList(routeIndex, user, randomLocation, productsToPluck, plucks, draw.random());
 
     this.pluckListRepository.save(pluckList);
+    this.pluckService.saveAll(plucks);
 
-    // Retrieve all available products
-    var availableProducts = this.productService.getAvailableProducts();
-    if (availableProducts.isEmpty()) {
-      throw new EmptyListException("No available products");
+    return pluckList;
+
+  }
+
+  /**
+   * Generates a wave of unassigned pluck lists for a route. The candidate products and
+   * locations are read once for the whole wave, and all pluck lists are written in one
+   * batched transaction. If the candidate products run out of stock, fewer pluck lists
+   * than asked for are generated.
+   *
+   * @param route to generate pluck lists for
+   * @param count number of pluck lists to generate
+   * @return a summary of each generated pluck list
+   * @throws EmptyListException if there are no available products or locations
+   * @throws IllegalArgumentException if the route is unknown or the count is out of range
+   */
+  @Transactional(rollbackFor = EmptyListException.class)
+  public List<PluckListSummary> generatePluckLists(String route, int count) throws EmptyListException {
+    var routeIndex = this.getRoutes().indexOf(route);
+    if (routeIndex < 0) throw new IllegalArgumentException("Unknown route: " + route);
+    if (count < 1 || count > MAX_WAVE_SIZE) throw new IllegalArgumentException("Count must be between 1 and " + MAX_WAVE_SIZE);
+
+    // Read the candidates once for the whole wave
+    var draw = this.newDraw();
+    var locations = this.pickRandomLocations(count, draw);
+    var lockedProducts = this.stockReservationService.lockInStock(this.pickRandomProducts(MAX_PLUCK_AMOUNT * count, draw));
+
+    // Build every pluck list in memory before writing them
+    var pluckLists = new ArrayList<PluckList>(count);
+    var plucks = new ArrayList<Pluck>(MAX_PLUCK_AMOUNT * count);
+    for (var i = 0; i < count; i++) {
+      var productsInStock = lockedProducts.stream().filter(product -> product.getQuantity() > 0).toList();
+      if (productsInStock.isEmpty()) {
+        break;
+      }
+
+      var location = locations.get(i % locations.size());
+      var productsToPluck = RandomSampler.sampleUpTo(productsInStock, MAX_PLUCK_AMOUNT, draw.random());
+
+      pluckLists.add(this.buildPluckList(routeIndex, null, location, productsToPluck, plucks, draw.random()));
+    }
+
+    if (pluckLists.isEmpty()) {
+      throw new EmptyListException("No products in stock");
     }
 
-    final int MAX_PLUCK_AMOUNT = 10;
-    var productsToPluck = this.extractRandomProduct(availableProducts, MAX_PLUCK_AMOUNT);
+    this.pluckListRepository.saveAll(pluckLists);
+    this.pluckService.saveAll(plucks);
+
+    return pluckLists.stream().map(PluckListSummary::new).toList();
+  }
+
+  /**
+   * Builds a pluck list with random plucks for the products given, without saving it.
+   * The amount of each pluck is reserved from the stock of its product, and the plucks
+   * are sequenced in the order the picker should walk to them.
+   *
+   * @param routeIndex index of the route in {@link #getRoutes()}
+   * @param user the pluck list is assigned to, can be {@code null}
+   * @param location to place the pluck list at
+   * @param productsToPluck the products to create plucks for, locked by
+   *                        {@link StockReservationService#lockInStock(Collection)}
+   * @param plucks a list the created plucks are added to, so they can be saved together
+   * @param random the generator to draw the amounts from
+   * @return the pluck list
+   */
+  private PluckList buildPluckList(int routeIndex, User user, Location location,
+                                   Collection<Product> productsToPluck, List<Pluck> plucks, RandomGenerator random) {
+    // Generate a pluck list for the route
+    var pluckList = new PluckList(
+        ROUTES[routeIndex],
+        DESTINATIONS[routeIndex],
+        user
+        );
+
+    // Add pluck list to the location
+    location.addEntity(pluckList);
 
     // Generate random plucks based on products to pluck
-    final int PLUCK_AMOUNT_UPPER_BOUND = 10;
+    var generated = new ArrayList<Pluck>(productsToPluck.size());
     for (var product : productsToPluck) {
-      var pluck = new Pluck(
+      var amount = this.stockReservationService.reserve(product, random.nextInt((PLUCK_AMOUNT_UPPER_BOUND - 1)) + 1);
+      if (amount == 0) {
+        continue;
+      }
+
+      generated.add(new Pluck(
           product,
-          random.nextInt((PLUCK_AMOUNT_UPPER_BOUND - 1)) + 1,
-          LocalDateTime.now());
+          amount,
+          LocalDateTime.now()));
+    }
 
+    // Add the plucks in the order the picker walks to them
+    for (var pluck : this.pickPathService.sequence(generated)) {
       pluckList.addPluck(pluck);
-      this.pluckService.savePluck(pluck);
+      plucks.add(pluck);
     }
 
     return pluckList;
+  }
+
+  /**
+   * Assigns a pluck list that is not assigned to anyone to the user of the token
+   *
+   * @param id of the pluck list to assign
+   * @param token of the user to assign the pluck list to
+   * @return optional containing the assigned pluck list. If no unassigned pluck list
+   * was found with the id, an empty optional is returned
+   * @throws JsonProcessingException if the token could not be parsed
+   */
+  @Transactional(rollbackFor = JsonProcessingException.class)
+  public Optional<PluckList> assignPluckList(Long id, String token) throws JsonProcessingException {
+    var user = this.getUser(token);
+
+    // Checked and assigned in one statement, so a pluck list is never handed to two users
+    if (this.pluckListRepository.assignIfUnassigned(id, user.getId()) == 0) {
+      return Optional.empty();
+    }
 
+    return this.pluckListRepository.findById(id);
   }
 
   /**
-   * Extracts n random number of products from a list of products
-   * 
-   * @param products a list of products that should be extracted from
-   * @param max      the maximum numbers of product to be extracted. Not
-   *                 that since it extracts a random number of products this can
-   *                 be
-   *                 less then the maximum value.
-   * @return a set of products
+   * Applies the progress reported for a batch of plucks in one transaction. The plucks are
+   * locked and read with one query, and updated with one statement however many there are.
+   * A timestamp that is already set is never overwritten, so a batch can safely be reported
+   * again. Pluck lists are stamped as confirmed when their first pluck was confirmed, and as
+   * finished when their last pluck was plucked.
+   *
+   * @param progress reported for each pluck
+   * @return how many plucks were confirmed and plucked, and which pluck lists were finished
+   * @throws IllegalArgumentException if a pluck id is missing or the batch is too large
    */
-  private Set<Product> extractRandomProduct(List<Product> products, int max) {
+  @Transactional
+  public PluckProgressResult updateProgress(Collection<PluckProgressDto> progress) {
+    if (progress.size() > MAX_PROGRESS_BATCH) throw new IllegalArgumentException("Cannot update more than " + MAX_PROGRESS_BATCH + " plucks at once");
+    if (progress.stream().anyMatch(entry -> entry.getId() == null)) throw new IllegalArgumentException("Pluck id cannot be empty");
+
+    // The first timestamp reported for a pluck wins, like the one already stored would
+    var reportedConfirmedAt = new HashMap<Long, LocalDateTime>();
+    var reportedPluckedAt = new HashMap<Long, LocalDateTime>();
+    for (var entry : progress) {
+      if (entry.getConfirmedAt() != null) reportedConfirmedAt.putIfAbsent(entry.getId(), entry.getConfirmedAt());
+      if (entry.getPluckedAt() != null) reportedPluckedAt.putIfAbsent(entry.getId(), entry.getPluckedAt());
+    }
 
-    // Copy the list given so we do not alter the original one
-    var productsCopy = new ArrayList<Product>(products);
+    var confirmedAt = new HashMap<Long, LocalDateTime>();
+    var pluckedAt = new HashMap<Long, LocalDateTime>();
+    var started = new HashSet<Long>();
+    var pluckIds = progress.stream().map(PluckProgressDto::getId).collect(Collectors.toSet());
+    for (var pluck : this.pluckService.lockProgress(pluckIds)) {
+      if (pluck.getConfirmedAt() == null && reportedConfirmedAt.containsKey(pluck.getId())) {
+        confirmedAt.put(pluck.getId(), reportedConfirmedAt.get(pluck.getId()));
+        if (pluck.getPluckListId() != null) {
+          started.add(pluck.getPluckListId());
+        }
+      }
+      if (pluck.getPluckedAt() == null && reportedPluckedAt.containsKey(pluck.getId())) {
+        pluckedAt.put(pluck.getId(), reportedPluckedAt.get(pluck.getId()));
+      }
+    }
+
+    this.pluckService.updateProgress(confirmedAt, pluckedAt);
+    if (!started.isEmpty()) {
+      this.pluckListRepository.confirmAll(started);
+    }
 
-    int numberOfPlucks;
-    if (productsCopy.size() < max) {
-      numberOfPlucks = random.nextInt(productsCopy.size()) + 1;
+    List<Long> finished = List.of();
+    if (!pluckedAt.isEmpty()) {
+      finished = this.pluckListRepository.findCompletedIdsByPluckIds(pluckedAt.keySet());
+      if (!finished.isEmpty()) {
+        this.pluckListRepository.finishAll(finished);
+      }
+    }
+
+    return new PluckProgressResult(confirmedAt.size(), pluckedAt.size(), finished);
+  }
+
+  /**
+   * Returns the ids of all pluck lists for a route that are not assigned to anyone
+   * and have not been started
+   *
+   * @param route to find pluck lists for
+   * @return a list of pluck list ids
+   */
+  public List<Long> findUnassignedIds(String route) {
+    return this.pluckListRepository.findUnassignedIdsByRoute(route);
+  }
+
+  /**
+   * Returns the user of a token
+   *
+   * @param token of the user
+   * @return the user
+   * @throws EntityNotFoundException if no user was found
+   * @throws JsonProcessingException if the token could not be parsed
+   */
+  private User getUser(String token) throws JsonProcessingException {
+    String userId = jwt.getUid(token);
+
+    var optionalUser = this.userService.getUserById(userId);
+
+    if (optionalUser.isEmpty()) {
+      throw new EntityNotFoundException("User not found; " + userId);
+    }
+
+    return optionalUser.get();
+  }
+
+  /**
+   * Returns the draw to use for a pluck list generated without a seed of its own
+   */
+  private Draw newDraw() {
+    return new Draw(this.randomSource.next(), this.randomSource.isSeeded());
+  }
+
+  /**
+   * Picks random locations that can hold a pluck list
+   *
+   * @param max the maximum number of locations to pick
+   * @param draw to pick with
+   * @return a list of up to {@code max} distinct locations, never empty
+   * @throws EmptyListException if there are no locations available
+   */
+  private List<Location> pickRandomLocations(int max, Draw draw) throws EmptyListException {
+    List<Location> locations;
+    if (draw.reproducible()) {
+      var positions = this.pickPositions(this.locationService.countPluckListLocations(), max, draw.random());
+      locations = positions.isEmpty() ? List.of() : this.locationService.getPluckListLocationsAt(positions);
+    } else if (this.samplingStrategy == SamplingStrategy.DATABASE) {
+      locations = this.locationService.getRandomPluckListLocations(max, draw.random());
+    } else if (this.samplingStrategy == SamplingStrategy.INDEX) {
+      locations = this.locationService.getIndexedRandomPluckListLocations(max, draw.random());
+    } else {
+      var allLocations = this.locationService.getAllPluckListLocations();
+      locations = RandomSampler.sample(allLocations, Math.min(max, allLocations.size()), draw.random());
+    }
+
+    if (locations.isEmpty()) {
+      throw new EmptyListException("No available locations");
+    }
+
+    return locations;
+  }
+
+  /**
+   * Picks random products to pluck. If fewer products than asked for are available,
+   * all of them are returned.
+   *
+   * @param max the maximum number of products to pick
+   * @param draw to pick with
+   * @return a list of up to {@code max} distinct products, never empty
+   * @throws EmptyListException if there are no available products
+   */
+  private List<Product> pickRandomProducts(int max, Draw draw) throws EmptyListException {
+    List<Product> products;
+    if (draw.reproducible()) {
+      var positions = this.pickPositions(this.productService.countAvailableProducts(), max, draw.random());
+      products = positions.isEmpty() ? List.of() : this.productService.getAvailableProductsAt(positions);
+    } else if (this.samplingStrategy != SamplingStrategy.IN_MEMORY) {
+      products = this.productService.getRandomAvailableProducts(max, draw.random());
     } else {
-      numberOfPlucks = random.nextInt(max) + 1;
+      var availableProducts = this.productService.getAvailableProducts();
+      products = RandomSampler.sample(availableProducts, Math.min(max, availableProducts.size()), draw.random());
     }
 
-    var extractedProducts = new HashSet<Product>();
-    for (var i = 0; i < numberOfPlucks; i++) {
-      var randomProductIndex = random.nextInt(productsCopy.size());
-      extractedProducts.add(productsCopy.get(randomProductIndex));
-      productsCopy.remove(randomProductIndex);
+    if (products.isEmpty()) {
+      throw new EmptyListException("No available products");
+    }
+
+    return products;
+  }
+
+  /**
+   * Picks up to {@code max} distinct random 1-based positions among {@code count} rows
+   */
+  private List<Long> pickPositions(long count, int max, RandomGenerator random) {
+    var indices = RandomSampler.sampleIndices(Math.toIntExact(count), (int) Math.min(max, count), random);
+
+    var positions = new ArrayList<Long>(indices.length);
+    for (var index : indices) {
+      positions.add(index + 1L);
     }
 
-    return extractedProducts;
+    return positions;
   }
 
   /**
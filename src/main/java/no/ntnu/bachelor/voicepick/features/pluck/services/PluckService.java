@@ -1,10 +1,16 @@
 package no.ntnu.bachelor.voicepick.features.pluck.services;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
 import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
 import no.ntnu.bachelor.voicepick.features.pluck.repositories.PluckRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.repositories.PluckRepository.PluckProgress;
 
 /**
  * A service class that exposes method for the pluck entity
@@ -24,4 +30,35 @@ public class PluckService {
     this.repository.save(pluck);
   }
 
+  /**
+   * Saves a collection of plucks to the repository. Within a transaction the inserts
+   * are sent to the database as one JDBC batch.
+   *
+   * @param plucks the plucks to save
+   */
+  public void saveAll(Collection<Pluck> plucks) {
+    this.repository.saveAll(plucks);
+  }
+
+  /**
+   * Locks the plucks with the given ids and returns how far they have come
+   *
+   * @param ids of the plucks to lock
+   * @return the progress of each pluck found, ordered by id
+   */
+  public List<PluckProgress> lockProgress(Collection<Long> ids) {
+    return this.repository.lockProgress(ids);
+  }
+
+  /**
+   * Sets when plucks were confirmed and plucked, with one update statement
+   *
+   * @param confirmedAt when each pluck was confirmed, by pluck id
+   * @param pluckedAt when each pluck was plucked, by pluck id
+   * @return the number of plucks updated
+   */
+  public int updateProgress(Map<Long, LocalDateTime> confirmedAt, Map<Long, LocalDateTime> pluckedAt) {
+    return this.repository.updateProgress(confirmedAt, pluckedAt);
+  }
+
 }
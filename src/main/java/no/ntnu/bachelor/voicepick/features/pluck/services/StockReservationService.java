@@ -0,0 +1,87 @@
+package no.ntnu.bachelor.voicepick.features.pluck.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.services.StockMovementService;
+
+/**
+ * Reserves stock for the plucks of generated pluck lists, so two pluck lists are never
+ * sent to pluck more of a product than there is.
+ *
+ * <p>Reserving is done in two steps within the transaction that generates the pluck list.
+ * First the candidate products are locked with {@link #lockInStock(Collection)}, which also
+ * applies their recorded stock movements and reads their current quantity. Then the amount of each pluck is taken from the locked
+ * quantity with {@link #reserve(Product, int)}. Products that another transaction is reserving
+ * from are skipped instead of waited for, so a popular product does not make every
+ * generation queue up behind it.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+  private final ProductRepository productRepository;
+  private final StockMovementService stockMovementService;
+
+  /**
+   * Locks the products given that have stock left, and updates them with their current
+   * quantity. The locks are held until the transaction ends.
+   *
+   * @param products to lock
+   * @return the products locked, ordered by id. Products without stock, or locked by
+   * another transaction, are left out
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<Product> lockInStock(Collection<Product> products) {
+    if (products.isEmpty()) {
+      return List.of();
+    }
+
+    var productsById = products.stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a));
+
+    var stockLevels = this.productRepository.lockInStock(productsById.keySet());
+    var applied = this.stockMovementService.applyPending(
+        stockLevels.stream().map(ProductRepository.StockLevel::getId).toList());
+
+    var lockedProducts = new ArrayList<Product>(stockLevels.size());
+    for (var stockLevel : stockLevels) {
+      var quantity = stockLevel.getQuantity() + applied.getOrDefault(stockLevel.getId(), 0);
+      if (quantity <= 0) {
+        continue;
+      }
+
+      // The product may have been read before another transaction reserved from it
+      var product = productsById.get(stockLevel.getId());
+      product.setQuantity(quantity);
+      lockedProducts.add(product);
+    }
+
+    return lockedProducts;
+  }
+
+  /**
+   * Reserves up to {@code amount} of a product locked by {@link #lockInStock(Collection)}
+   *
+   * @param product to reserve from
+   * @param amount to reserve
+   * @return the amount reserved, which is less than asked for if there is not enough stock
+   */
+  public int reserve(Product product, int amount) {
+    var reserved = Math.min(amount, product.getQuantity());
+    product.setQuantity(product.getQuantity() - reserved);
+
+    return reserved;
+  }
+
+}
@@ -0,0 +1,79 @@
+package no.ntnu.bachelor.voicepick.features.pluck.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks random rows of a table by probing its range of keys, so the database never reads or
+ * sorts every row to shuffle them.
+ *
+ * <p>Each probe is a random key between the lowest and the highest key of the table, and picks
+ * the first row that matches at or after it, which is one short index scan. The work done
+ * depends on the number of rows picked, not on the size of the table. Rows that follow a long
+ * run of keys without a matching row are more likely to be picked than others, so the rows are
+ * random but not exactly uniform.
+ *
+ * <p>Probes that pick a row already picked, or run past the last matching row, are drawn again
+ * for a few rounds. If there are still too few rows, the first rows by key are read to find out
+ * if fewer rows match than were asked for, and all of them are returned if so. They are also
+ * picked from if no probe hit a row at all.
+ */
+public final class KeyRangeSampler {
+
+  static final int ROUNDS = 3;
+
+  private KeyRangeSampler() {
+  }
+
+  /**
+   * The lowest and highest key of a table, of matching and other rows alike
+   */
+  public record KeyRange(long lowest, long highest) {
+  }
+
+  /**
+   * Picks up to {@code k} distinct random keys of matching rows
+   *
+   * @param range of the keys of the table
+   * @param k the number of keys to pick
+   * @param random the generator to draw from
+   * @param firstAtOrAfter returns the key of the first matching row at or after each of the
+   *                       keys given, leaving out keys with no matching row after them
+   * @param first returns the keys of up to the given number of matching rows, lowest first
+   * @return a list of up to {@code k} distinct keys, in random order. Fewer keys are only
+   * returned if fewer rows match, or if the probes kept missing them. Empty only if no row matches
+   */
+  public static List<Long> sample(KeyRange range, int k, RandomGenerator random,
+                                  Function<Collection<Long>, List<Long>> firstAtOrAfter,
+                                  IntFunction<List<Long>> first) {
+    var keys = new LinkedHashSet<Long>();
+    for (var round = 0; round < ROUNDS && keys.size() < k; round++) {
+      // More probes than keys missing, since some land on the same row
+      var probes = new ArrayList<Long>();
+      for (var i = 0; i < 2 * (k - keys.size()); i++) {
+        probes.add(random.nextLong(range.lowest(), range.highest() + 1));
+      }
+
+      for (var key : firstAtOrAfter.apply(probes)) {
+        if (keys.size() < k) {
+          keys.add(key);
+        }
+      }
+    }
+
+    if (keys.size() < k) {
+      var lowest = first.apply(k + 1);
+      if (lowest.size() <= k || keys.isEmpty()) {
+        return RandomSampler.sample(lowest, Math.min(k, lowest.size()), random);
+      }
+    }
+
+    return new ArrayList<>(keys);
+  }
+
+}
@@ -0,0 +1,87 @@
+package no.ntnu.bachelor.voicepick.features.pluck.utils;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.regex.Pattern;
+
+/**
+ * A location code like {@code H09}, split into the aisle given by the letters and the slot
+ * in the aisle given by the digits. Aisles are numbered from {@code A = 0}, and continue
+ * with {@code AA} after {@code Z} like spreadsheet columns.
+ *
+ * <p>A code can also name the zone of the warehouse before the aisle, and the level of the
+ * shelf after the slot, like {@code 2-H09-3}. Both are {@code 0} when left out.
+ *
+ * @param zone the number of the zone
+ * @param aisle the index of the aisle
+ * @param slot the number of the slot in the aisle
+ * @param level the number of the level of the slot
+ */
+public record LocationCode(int zone, int aisle, int slot, int level) {
+
+  private static final Pattern PATTERN = Pattern.compile("(?:(\\d{1,3})-)?([A-Za-z]{1,4})(\\d{1,6})(?:-(\\d{1,3}))?");
+  private static final Pattern AISLE_PATTERN = Pattern.compile("[A-Za-z]{1,4}");
+
+  /**
+   * Creates a code in zone {@code 0} at level {@code 0}
+   *
+   * @param aisle the index of the aisle
+   * @param slot the number of the slot in the aisle
+   */
+  public LocationCode(int aisle, int slot) {
+    this(0, aisle, slot, 0);
+  }
+
+  /**
+   * Parses a location code
+   *
+   * @param code to parse
+   * @return optional containing the parsed code. If the code does not follow the
+   * letters-then-digits format, an empty optional is returned
+   */
+  public static Optional<LocationCode> parse(String code) {
+    if (code == null) {
+      return Optional.empty();
+    }
+
+    var matcher = PATTERN.matcher(code.strip());
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new LocationCode(
+        numberOrZero(matcher.group(1)),
+        aisleIndex(matcher.group(2)),
+        Integer.parseInt(matcher.group(3)),
+        numberOrZero(matcher.group(4))));
+  }
+
+  /**
+   * Parses the letters of an aisle, like {@code H}
+   *
+   * @param letters of the aisle
+   * @return optional containing the index of the aisle. If the letters are not valid,
+   * an empty optional is returned
+   */
+  public static OptionalInt parseAisle(String letters) {
+    if (letters == null || !AISLE_PATTERN.matcher(letters.strip()).matches()) {
+      return OptionalInt.empty();
+    }
+
+    return OptionalInt.of(aisleIndex(letters.strip()));
+  }
+
+  private static int aisleIndex(String letters) {
+    var aisle = 0;
+    for (var letter : letters.toUpperCase().toCharArray()) {
+      aisle = aisle * 26 + (letter - 'A' + 1);
+    }
+
+    return aisle - 1;
+  }
+
+  private static int numberOrZero(String digits) {
+    return digits == null ? 0 : Integer.parseInt(digits);
+  }
+
+}
@@ -0,0 +1,194 @@
+package no.ntnu.bachelor.voicepick.features.pluck.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Orders location codes into a short walk through the warehouse.
+ *
+ * <p>The warehouse is modelled as parallel aisles with a cross aisle at the front, before the
+ * first slot, and at the back, after the last slot. Walking from one aisle to another means
+ * leaving through one of the cross aisles. The warehouse can have several zones laid out like
+ * this, entered from the front of their first aisle. Walking from one zone to another means
+ * leaving through the front cross aisle and walking to the entrance of the other zone. The walk
+ * starts at the front of the first aisle of zone {@code 0}. The level of a location does not
+ * change the distance walked.
+ *
+ * <p>The walk is first laid out as a serpentine, one zone after another: every aisle of the zone
+ * with a location is visited in order, walking up the first, down the next and so on. It can then
+ * be improved with 2-opt, which keeps reversing parts of the walk as long as that makes it shorter.
+ */
+public final class PickPathSequencer {
+
+  /** Distance walked between two neighbouring aisles, counted in slots */
+  private static final int AISLE_DISTANCE = 3;
+  /** Distance walked between the entrances of two neighbouring zones, counted in slots */
+  private static final int ZONE_DISTANCE = 20;
+  private static final int MAX_TWO_OPT_PASSES = 20;
+
+  private PickPathSequencer() {
+  }
+
+  /**
+   * Orders location codes into a walk through the warehouse
+   *
+   * @param codes the codes of the locations to visit
+   * @param twoOpt whether to improve the serpentine walk with 2-opt
+   * @return the distinct codes in walk order. Codes that cannot be parsed are placed last,
+   * in alphabetical order
+   */
+  public static List<String> sequence(Collection<String> codes, boolean twoOpt) {
+    var stops = new LinkedHashMap<String, LocationCode>();
+    var unparsed = new TreeSet<String>();
+    for (var code : new TreeSet<>(codes)) {
+      LocationCode.parse(code).ifPresentOrElse(location -> stops.put(code, location), () -> unparsed.add(code));
+    }
+
+    var walk = serpentine(stops);
+    if (twoOpt) {
+      improve(walk, stops);
+    }
+
+    var result = new ArrayList<String>(walk.size() + unparsed.size());
+    result.addAll(walk);
+    result.addAll(unparsed);
+    return result;
+  }
+
+  /**
+   * Returns the length of a walk through the codes in the order given, starting at the front of
+   * the first aisle of zone {@code 0}. Codes that cannot be parsed are skipped.
+   *
+   * @param codes in walk order
+   * @return the length of the walk, counted in slots
+   */
+  public static int length(List<String> codes) {
+    var locations = codes.stream().flatMap(code -> LocationCode.parse(code).stream()).toList();
+    var depths = depths(locations);
+
+    var length = 0;
+    var previous = new LocationCode(0, 0);
+    for (var location : locations) {
+      length += distance(previous, location, depths);
+      previous = location;
+    }
+    return length;
+  }
+
+  private static List<String> serpentine(LinkedHashMap<String, LocationCode> stops) {
+    var aisleOrders = new HashMap<Integer, int[]>();
+    stops.values().stream()
+        .collect(Collectors.groupingBy(LocationCode::zone))
+        .forEach((zone, locations) -> aisleOrders.put(zone,
+            locations.stream().mapToInt(LocationCode::aisle).distinct().sorted().toArray()));
+
+    var walk = new ArrayList<>(stops.keySet());
+    walk.sort(Comparator.comparingInt((String code) -> stops.get(code).zone())
+        .thenComparingInt(code -> stops.get(code).aisle())
+        .thenComparingInt(code -> {
+          var location = stops.get(code);
+          // Walk up every other aisle visited in the zone, and down the rest
+          var up = Arrays.binarySearch(aisleOrders.get(location.zone()), location.aisle()) % 2 == 0;
+          return up ? location.slot() : -location.slot();
+        })
+        .thenComparingInt(code -> stops.get(code).level()));
+    return walk;
+  }
+
+  private static void improve(List<String> walk, LinkedHashMap<String, LocationCode> stops) {
+    var n = walk.size();
+    if (n < 3) {
+      return;
+    }
+
+    // Index 0 is the start of the walk
+    var points = new LocationCode[n + 1];
+    points[0] = new LocationCode(0, 0);
+    for (var i = 0; i < n; i++) {
+      points[i + 1] = stops.get(walk.get(i));
+    }
+    var depths = depths(stops.values());
+
+    var improved = true;
+    for (var pass = 0; improved && pass < MAX_TWO_OPT_PASSES; pass++) {
+      improved = false;
+      for (var i = 1; i < n; i++) {
+        for (var j = i + 1; j <= n; j++) {
+          var before = distance(points[i - 1], points[i], depths)
+              + (j < n ? distance(points[j], points[j + 1], depths) : 0);
+          var after = distance(points[i - 1], points[j], depths)
+              + (j < n ? distance(points[i], points[j + 1], depths) : 0);
+
+          if (after < before) {
+            reverse(points, i, j);
+            improved = true;
+          }
+        }
+      }
+    }
+
+    var codes = new LinkedHashMap<LocationCode, List<String>>();
+    for (var code : walk) {
+      codes.computeIfAbsent(stops.get(code), location -> new ArrayList<>()).add(code);
+    }
+    walk.clear();
+    for (var i = 1; i <= n; i++) {
+      var sameLocation = codes.get(points[i]);
+      if (!sameLocation.isEmpty()) {
+        walk.add(sameLocation.remove(0));
+      }
+    }
+  }
+
+  private static void reverse(LocationCode[] points, int from, int to) {
+    while (from < to) {
+      var point = points[from];
+      points[from++] = points[to];
+      points[to--] = point;
+    }
+  }
+
+  /**
+   * Returns the distance between two locations. Within an aisle it is the slots between them,
+   * within a zone the walk out through the closest cross aisle and into the other aisle, and
+   * otherwise the walk out through the front cross aisle to the entrance of the zone, over to
+   * the entrance of the other zone and on to the other aisle
+   */
+  private static int distance(LocationCode from, LocationCode to, Map<Integer, Integer> depths) {
+    if (from.zone() != to.zone()) {
+      return from.slot() + AISLE_DISTANCE * from.aisle()
+          + ZONE_DISTANCE * Math.abs(from.zone() - to.zone())
+          + AISLE_DISTANCE * to.aisle() + to.slot();
+    }
+
+    if (from.aisle() == to.aisle()) {
+      return Math.abs(from.slot() - to.slot());
+    }
+
+    var depth = depths.getOrDefault(from.zone(), 1);
+    var throughFront = from.slot() + to.slot();
+    var throughBack = 2 * depth - from.slot() - to.slot();
+    return AISLE_DISTANCE * Math.abs(from.aisle() - to.aisle()) + Math.min(throughFront, throughBack);
+  }
+
+  /**
+   * Returns the slot of the back cross aisle of each zone, right after the last slot in use
+   * in the zone
+   */
+  private static Map<Integer, Integer> depths(Collection<LocationCode> locations) {
+    var depths = new HashMap<Integer, Integer>();
+    for (var location : locations) {
+      depths.merge(location.zone(), location.slot() + 1, Math::max);
+    }
+    return depths;
+  }
+
+}
@@ -0,0 +1,107 @@
+package no.ntnu.bachelor.voicepick.features.pluck.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks random elements from a list without copying or altering it.
+ *
+ * <p>The sampling is a partial Fisher–Yates shuffle over the indices of the list. Instead of
+ * shuffling an array of every index, only the positions that have been swapped are remembered,
+ * so picking {@code k} elements takes {@code O(k)} memory and {@code O(k²)} time no matter
+ * how large the list is. Every subset of {@code k} elements is equally likely, and the
+ * elements are returned in random order.
+ */
+public final class RandomSampler {
+
+  private RandomSampler() {
+  }
+
+  /**
+   * Picks {@code k} distinct random elements from a list
+   *
+   * @param source the list to pick from. Should support fast random access
+   * @param k the number of elements to pick
+   * @param random the generator to draw from
+   * @param <T> the type of the elements
+   * @return a new list with the picked elements in random order
+   * @throws IllegalArgumentException if {@code k} is negative or larger than the list
+   */
+  public static <T> List<T> sample(List<T> source, int k, RandomGenerator random) {
+    var indices = sampleIndices(source.size(), k, random);
+
+    var result = new ArrayList<T>(k);
+    for (var index : indices) {
+      result.add(source.get(index));
+    }
+
+    return result;
+  }
+
+  /**
+   * Picks {@code k} distinct random indices in the range {@code [0, n)}
+   *
+   * @param n the number of indices to pick from
+   * @param k the number of indices to pick
+   * @param random the generator to draw from
+   * @return an array with the picked indices in random order
+   * @throws IllegalArgumentException if {@code k} is negative or larger than {@code n}
+   */
+  public static int[] sampleIndices(int n, int k, RandomGenerator random) {
+    if (k < 0 || k > n) throw new IllegalArgumentException("Cannot pick " + k + " elements from a list of " + n);
+
+    // The value at a swapped position. Positions not in here hold their own index
+    var swappedPositions = new int[k];
+    var swappedValues = new int[k];
+    var swapped = 0;
+
+    var result = new int[k];
+    for (var i = 0; i < k; i++) {
+      var j = i + random.nextInt(n - i);
+
+      var valueAtI = valueAt(i, swappedPositions, swappedValues, swapped);
+      result[i] = valueAt(j, swappedPositions, swappedValues, swapped);
+
+      // Position i is never read again, so only position j has to be remembered
+      var slot = slotOf(j, swappedPositions, swapped);
+      if (slot < 0) {
+        slot = swapped++;
+        swappedPositions[slot] = j;
+      }
+      swappedValues[slot] = valueAtI;
+    }
+
+    return result;
+  }
+
+  /**
+   * Picks between 1 and {@code max} distinct random elements from a list. The number of
+   * elements is drawn uniformly, capped by the size of the list.
+   *
+   * @param source the list to pick from, cannot be empty
+   * @param max the maximum number of elements to pick
+   * @param random the generator to draw from
+   * @param <T> the type of the elements
+   * @return a new list with the picked elements in random order
+   */
+  public static <T> List<T> sampleUpTo(List<T> source, int max, RandomGenerator random) {
+    var k = random.nextInt(Math.min(source.size(), max)) + 1;
+    return sample(source, k, random);
+  }
+
+  private static int valueAt(int position, int[] positions, int[] values, int size) {
+    var slot = slotOf(position, positions, size);
+    return slot < 0 ? position : values[slot];
+  }
+
+  private static int slotOf(int position, int[] positions, int size) {
+    for (var i = 0; i < size; i++) {
+      if (positions[i] == position) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,63 @@
+package no.ntnu.bachelor.voicepick.features.pluck.utils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out the random generators used to generate pluck lists.
+ *
+ * <p>By default every thread draws from its own {@link ThreadLocalRandom}, so concurrent
+ * requests never contend on a shared generator. When {@code pluck-list.random-seed} is set,
+ * each pluck list instead gets its own generator split from one seeded root, which makes a
+ * replay that generates pluck lists in the same order produce the same pluck lists.
+ */
+@Component
+public class RandomSource {
+
+  private final SplittableRandom root;
+
+  public RandomSource(@Value("${pluck-list.random-seed:#{null}}") Long seed) {
+    this.root = seed == null ? null : new SplittableRandom(seed);
+  }
+
+  /**
+   * Returns whether the generators handed out by {@link #next()} are seeded
+   *
+   * @return {@code true} if a seed is configured
+   */
+  public boolean isSeeded() {
+    return this.root != null;
+  }
+
+  /**
+   * Returns a generator to use for one pluck list. The generator should only be used
+   * by the calling thread.
+   *
+   * @return a random generator
+   */
+  public RandomGenerator next() {
+    if (this.root == null) {
+      return ThreadLocalRandom.current();
+    }
+
+    // Splitting is cheap, so the lock is only held for a moment
+    synchronized (this.root) {
+      return this.root.split();
+    }
+  }
+
+  /**
+   * Returns a generator seeded with the seed given, independent of the configured seed
+   *
+   * @param seed to use
+   * @return a random generator that always gives the same values for the same seed
+   */
+  public RandomGenerator withSeed(long seed) {
+    return new SplittableRandom(seed);
+  }
+
+}
@@ -2,66 +2,112 @@ package no.ntnu.bachelor.voicepick.models;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.LocationCode;
+import org.hibernate.Hibernate;
 
 import java.util.HashSet;
 import java.util.Set;
 
 /**
- * An entity that represents a location in a warehouse
+ * An entity that represents a location in a warehouse. The code of the location is parsed into
+ * its zone, aisle, slot and level, which are stored in their own columns so locations can be
+ * looked up by range. They are {@code null} if the code cannot be parsed.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Table(name = Location.TABLE_NAME)
+@EntityListeners(OccupancyListener.class)
+@NamedEntityGraph(name = Location.WITH_ENTITIES, attributeNodes = @NamedAttributeNode("entities"))
 public class Location {
 
     public static final String TABLE_NAME = "location";
     public static final String PRIMARY_KEY = "location_id";
+    public static final String WITH_ENTITIES = "Location.entities";
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = Location.PRIMARY_KEY)
     private Long id;
 
+    @Setter(AccessLevel.NONE)
     @Column(name = "code")
     private String code;
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "zone")
+    private Integer zone;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "aisle")
+    private Integer aisle;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "slot")
+    private Integer slot;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "level")
+    private Integer level;
+
     @Column(name = "control_digits")
     private int controlDigits;
 
     @JsonBackReference
-    @OneToMany(mappedBy = "location", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "location", fetch = FetchType.LAZY)
     private Set<LocationEntity> entities = new HashSet<>();
 
     public Location(String code, int controlDigits) {
         if (code == null || code.isBlank()) throw new IllegalArgumentException("Location code cannot be blank");
         if (controlDigits < 0) throw new IllegalArgumentException("Control digits cannot be negative");
 
-        this.code = code;
+        this.setCode(code);
         this.controlDigits = controlDigits;
     }
 
     /**
-     * Adds a location entity to the location
+     * Sets the code of the location, along with the zone, aisle, slot and level parsed from it
+     *
+     * @param code of the location
+     */
+    public void setCode(String code) {
+        this.code = code;
+
+        var coordinates = LocationCode.parse(code);
+        this.zone = coordinates.map(LocationCode::zone).orElse(null);
+        this.aisle = coordinates.map(LocationCode::aisle).orElse(null);
+        this.slot = coordinates.map(LocationCode::slot).orElse(null);
+        this.level = coordinates.map(LocationCode::level).orElse(null);
+    }
+
+    /**
+     * Adds a location entity to the location. The entities of the location are only
+     * updated if they are already loaded, so adding an entity never loads them.
      *
      * @param entity to be added
      */
     public void addEntity(LocationEntity entity) {
-        this.entities.add(entity);
+        if (Hibernate.isInitialized(this.entities)) {
+            this.entities.add(entity);
+        }
         entity.setLocation(this);
     }
 
     /**
-     * Removes a location entity from a location
+     * Removes a location entity from a location. The entities of the location are only
+     * updated if they are already loaded, so removing an entity never loads them.
      *
      * @param entity to be removed
      */
     public void removeEntity(LocationEntity entity) {
-        this.entities.remove(entity);
+        if (Hibernate.isInitialized(this.entities)) {
+            this.entities.remove(entity);
+        }
         entity.setLocation(null);
     }
 
@@ -1,6 +1,7 @@
 package no.ntnu.bachelor.voicepick.models;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -8,20 +9,40 @@ import lombok.Setter;
 /**
  * Any class extending this {@code LocationEntity} class represents an entity in the real world
  * that can have a location
+ *
+ * <p>Each subclass is stored in its own table joined on the id, or with the {@code single-table}
+ * profile in this table alone, see {@link LocationEntityMapping}
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@EntityListeners(OccupancyListener.class)
 public abstract class LocationEntity {
 
+    public static final String SEQUENCE_NAME = "location_entity_seq";
+
+    /**
+     * Shared by all subclasses, so pluck lists and products get their ids from the same
+     * pooled sequence
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = LocationEntity.SEQUENCE_NAME)
+    @SequenceGenerator(name = LocationEntity.SEQUENCE_NAME, sequenceName = LocationEntity.SEQUENCE_NAME, allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn
     private Location location;
 
+    /**
+     * The id of the location the entity was at when it was loaded or last written.
+     * Kept by {@link OccupancyListener} to tell when the entity has moved.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Long storedLocationId;
+
 }
@@ -0,0 +1,60 @@
+package no.ntnu.bachelor.voicepick.models;
+
+import jakarta.persistence.Table;
+
+/**
+ * How the {@link LocationEntity} hierarchy is stored, set by {@code location-entity.mapping}.
+ * Native SQL that reads or writes products or pluck lists asks the mapping for their tables.
+ *
+ * <p>{@link #JOINED} is the mapping of the annotations. {@link #SINGLE_TABLE} is enabled with the
+ * {@code single-table} profile, which overrides the annotations with
+ * {@code META-INF/orm-single-table.xml} and migrates the subtype tables into {@code location_entity}.
+ */
+public enum LocationEntityMapping {
+
+    /**
+     * Each subtype has its own table, joined to {@code location_entity} on the id
+     */
+    JOINED,
+
+    /**
+     * Every subtype is stored in {@code location_entity}, told apart by the {@code dtype} column
+     */
+    SINGLE_TABLE;
+
+    public static final String TABLE_NAME = "location_entity";
+
+    /**
+     * Returns the table holding the columns of a subtype, for updates and deletes
+     *
+     * @param type of the entities
+     * @return the name of the table
+     */
+    public String tableOf(Class<? extends LocationEntity> type) {
+        return this == SINGLE_TABLE ? TABLE_NAME : type.getAnnotation(Table.class).name();
+    }
+
+    /**
+     * Returns SQL for the rows of a subtype that can be read in place of a table. Each row has the
+     * id of the entity and the columns of the subtype.
+     *
+     * @param type of the entities
+     * @return a table name or a derived table, which must be given an alias
+     */
+    public String rowsOf(Class<? extends LocationEntity> type) {
+        return this == SINGLE_TABLE
+                ? "(SELECT * FROM " + TABLE_NAME + " WHERE dtype = '" + discriminatorOf(type) + "')"
+                : this.tableOf(type);
+    }
+
+    /**
+     * Returns the value of the {@code dtype} column for a subtype, which is its entity name
+     *
+     * @param type of the entities
+     * @return the discriminator value
+     */
+    public static String discriminatorOf(Class<? extends LocationEntity> type) {
+        return type.getSimpleName();
+    }
+
+}
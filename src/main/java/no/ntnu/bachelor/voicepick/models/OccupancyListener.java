@@ -0,0 +1,83 @@
+package no.ntnu.bachelor.voicepick.models;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import no.ntnu.bachelor.voicepick.events.LocationAddedEvent;
+import no.ntnu.bachelor.voicepick.events.LocationEntityMovedEvent;
+import no.ntnu.bachelor.voicepick.events.LocationRemovedEvent;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Objects;
+
+/**
+ * Publishes an event whenever a location is stored or deleted, and whenever an entity is
+ * stored at, moved between or removed from locations. The events are published as the changes
+ * are written to the database, so listeners that should only see committed changes must
+ * listen after commit.
+ *
+ * <p>Moves are found by comparing the location of an entity with the location it had when it
+ * was loaded or last written. Changes made with bulk queries are not seen.
+ */
+public class OccupancyListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OccupancyListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    void loaded(Object entity) {
+        if (entity instanceof LocationEntity locationEntity) {
+            locationEntity.storedLocationId = locationIdOf(locationEntity);
+        }
+    }
+
+    @PostPersist
+    void persisted(Object entity) {
+        if (entity instanceof Location location) {
+            this.eventPublisher.publishEvent(new LocationAddedEvent(location.getId()));
+        } else if (entity instanceof LocationEntity locationEntity) {
+            this.moved(locationEntity, null);
+        }
+    }
+
+    @PostUpdate
+    void updated(Object entity) {
+        if (entity instanceof LocationEntity locationEntity) {
+            this.moved(locationEntity, locationEntity.storedLocationId);
+        }
+    }
+
+    @PostRemove
+    void removed(Object entity) {
+        if (entity instanceof Location location) {
+            this.eventPublisher.publishEvent(new LocationRemovedEvent(location.getId()));
+        } else if (entity instanceof LocationEntity locationEntity && locationEntity.storedLocationId != null) {
+            this.eventPublisher.publishEvent(new LocationEntityMovedEvent(
+                    typeOf(locationEntity), locationEntity.storedLocationId, null));
+            locationEntity.storedLocationId = null;
+        }
+    }
+
+    private void moved(LocationEntity entity, Long from) {
+        var to = locationIdOf(entity);
+        if (!Objects.equals(from, to)) {
+            this.eventPublisher.publishEvent(new LocationEntityMovedEvent(typeOf(entity), from, to));
+        }
+        entity.storedLocationId = to;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends LocationEntity> typeOf(LocationEntity entity) {
+        return (Class<? extends LocationEntity>) Hibernate.getClass(entity);
+    }
+
+    private static Long locationIdOf(LocationEntity entity) {
+        return entity.getLocation() == null ? null : entity.getLocation().getId();
+    }
+
+}
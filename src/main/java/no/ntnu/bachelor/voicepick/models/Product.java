@@ -1,6 +1,7 @@
 package no.ntnu.bachelor.voicepick.models;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.Getter;
@@ -13,16 +14,12 @@ import lombok.Getter;
 @NoArgsConstructor
 @Entity
 @Table(name = Product.TABLE_NAME)
+@EntityListeners(StockStatusListener.class)
 public class Product extends LocationEntity {
 
   public static final String TABLE_NAME = "product";
   public static final String PRIMARY_KEY = "product_id";
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
-  @Column(name = Product.PRIMARY_KEY)
-  private Long id;
-
   @Column(name = "product_name")
   private String name;
 
@@ -38,11 +35,27 @@ public class Product extends LocationEntity {
   @Column(name = "type")
   private ProductType type;
 
+  /**
+   * Follows the quantity, see {@link Status#of(int)}
+   */
   @Column(name = "status")
+  @Setter(AccessLevel.NONE)
   private Status status;
 
-  public Product(String name, double weight, double volume, int quantity, ProductType type,
-                 Status status) {
+  /**
+   * The status of the product when it was loaded or last written. Kept by
+   * {@link StockStatusListener} to tell when the product has run out.
+   */
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  Status storedStatus;
+
+  /**
+   * Creates a product. The status of the product follows its quantity, so a product created
+   * without stock is {@link Status#EMPTY}.
+   */
+  public Product(String name, double weight, double volume, int quantity, ProductType type) {
 
     if (name.isBlank()) throw new IllegalArgumentException("Name cannot be empty");
     if (weight <= 0) throw new IllegalArgumentException("Cannot create product with negative weight");
@@ -52,9 +65,18 @@ public class Product extends LocationEntity {
     this.name = name;
     this.weight = weight;
     this.volume = volume;
-    this.quantity = quantity;
     this.type = type;
-    this.status = status;
+    this.setQuantity(quantity);
+  }
+
+  /**
+   * Sets the quantity of the product, and updates its status to match
+   *
+   * @param quantity of the product
+   */
+  public void setQuantity(int quantity) {
+    this.quantity = quantity;
+    this.status = Status.of(quantity);
   }
 
   public void removeLocation() {
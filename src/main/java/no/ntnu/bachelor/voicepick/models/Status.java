@@ -16,4 +16,14 @@ public enum Status {
     this.label = label;
   }
 
+  /**
+   * Returns the status of a product with the given quantity
+   *
+   * @param quantity of the product
+   * @return {@link #READY} if there is anything left of the product, {@link #EMPTY} if not
+   */
+  public static Status of(int quantity) {
+    return quantity > 0 ? READY : EMPTY;
+  }
+
 }
@@ -0,0 +1,62 @@
+package no.ntnu.bachelor.voicepick.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An entry in the ledger of changes to the stock of products. Movements are only ever
+ * added, and are applied to the quantity of their product later, many at a time.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = StockMovement.TABLE_NAME)
+public class StockMovement {
+
+  public static final String TABLE_NAME = "stock_movement";
+  public static final String SEQUENCE_NAME = "stock_movement_seq";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = StockMovement.SEQUENCE_NAME)
+  @SequenceGenerator(name = StockMovement.SEQUENCE_NAME, sequenceName = StockMovement.SEQUENCE_NAME, allocationSize = 50)
+  private Long id;
+
+  /**
+   * The id of the product. Not mapped as a relation, so recording a movement never loads the
+   * product, and the ledger is kept after the product is deleted.
+   */
+  @Column(name = "product_id", nullable = false)
+  private Long productId;
+
+  @Column(name = "type")
+  private StockMovementType type;
+
+  /**
+   * The change to the quantity of the product, negative for stock taken
+   */
+  @Column(name = "amount", nullable = false)
+  private int amount;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+  /**
+   * Whether the amount is added to the quantity stored on the product. Until it is, it is
+   * added to the quantity whenever the quantity is read.
+   */
+  @Column(name = "applied", nullable = false)
+  private boolean applied;
+
+  public StockMovement(Long productId, StockMovementType type, int amount) {
+    this.productId = productId;
+    this.type = type;
+    this.amount = amount;
+    this.createdAt = LocalDateTime.now();
+  }
+
+}
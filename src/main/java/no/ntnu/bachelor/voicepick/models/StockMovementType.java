@@ -0,0 +1,23 @@
+package no.ntnu.bachelor.voicepick.models;
+
+/**
+ * The kind of change made to the stock of a product
+ */
+public enum StockMovementType {
+
+  /**
+   * Stock taken from a location by a picker
+   */
+  PICK,
+
+  /**
+   * Stock received at a location
+   */
+  RECEIPT,
+
+  /**
+   * A correction of the stock, for example after a count
+   */
+  ADJUSTMENT
+
+}
@@ -0,0 +1,40 @@
+package no.ntnu.bachelor.voicepick.models;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import no.ntnu.bachelor.voicepick.events.ProductEmptiedEvent;
+import no.ntnu.bachelor.voicepick.utils.TransactionCallbacks;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes a {@link ProductEmptiedEvent} whenever a product is written with a quantity that
+ * makes it go from {@link Status#READY} to {@link Status#EMPTY}. The status is compared with
+ * the one the product had when it was loaded or last written, and the event is published once
+ * the write commits. Changes made with bulk queries are not seen, and must publish the event
+ * themselves.
+ */
+public class StockStatusListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockStatusListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    @PostPersist
+    void stored(Product product) {
+        product.storedStatus = product.getStatus();
+    }
+
+    @PostUpdate
+    void updated(Product product) {
+        if (product.storedStatus != Status.EMPTY && product.getStatus() == Status.EMPTY) {
+            var event = new ProductEmptiedEvent(product.getId());
+            TransactionCallbacks.afterCommit(() -> this.eventPublisher.publishEvent(event));
+        }
+        product.storedStatus = product.getStatus();
+    }
+
+}
@@ -0,0 +1,44 @@
+package no.ntnu.bachelor.voicepick.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler.KeyRange;
+
+/**
+ * Native queries of {@link LocationRepository} that depend on how location entities are stored,
+ * see {@link no.ntnu.bachelor.voicepick.models.LocationEntityMapping}
+ */
+public interface LocationNativeQueries {
+
+    /**
+     * Returns the ids of the locations that can hold a pluck list found at the given positions,
+     * when all such locations are ordered by id. Used to pick the same locations every time for
+     * the same positions, as long as the stored locations do not change.
+     *
+     * @param positions the 1-based positions of the locations to return
+     * @return a list of location ids, in no particular order
+     */
+    List<Long> findPluckListIdsAtPositions(Collection<Long> positions);
+
+    /**
+     * Returns the lowest and highest id of all locations. Read from the ends of the primary key,
+     * without scanning the locations.
+     *
+     * @return optional containing the range of ids, or empty if there are no locations
+     */
+    Optional<KeyRange> findIdRange();
+
+    /**
+     * Returns, for each id given, the id of the first location that can hold a pluck list at or
+     * after it. Each id is looked up with a scan of the primary key from the id, which stops at
+     * the first location that can hold a pluck list.
+     *
+     * @param ids to look up from
+     * @return a list of location ids, one for each id with such a location at or after it. May
+     * contain the same id more than once
+     */
+    List<Long> findPluckListIdsAtOrAfter(Collection<Long> ids);
+
+}
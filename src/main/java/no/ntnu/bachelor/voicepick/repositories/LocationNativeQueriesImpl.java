@@ -0,0 +1,76 @@
+package no.ntnu.bachelor.voicepick.repositories;
+
+import jakarta.persistence.EntityManager;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler.KeyRange;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+class LocationNativeQueriesImpl implements LocationNativeQueries {
+
+    private final EntityManager entityManager;
+    private final LocationEntityMapping mapping;
+
+    LocationNativeQueriesImpl(EntityManager entityManager,
+                              @Value("${location-entity.mapping:JOINED}") LocationEntityMapping mapping) {
+        this.entityManager = entityManager;
+        this.mapping = mapping;
+    }
+
+    @Override
+    public List<Long> findPluckListIdsAtPositions(Collection<Long> positions) {
+        List<?> ids = this.entityManager.createNativeQuery("SELECT ranked.id FROM (" +
+                        "SELECT l.location_id AS id, ROW_NUMBER() OVER (ORDER BY l.location_id) AS position " +
+                        "FROM location l " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM location_entity e WHERE e.location_location_id = l.location_id) " +
+                        "OR EXISTS (SELECT 1 FROM location_entity e JOIN " + this.mapping.rowsOf(PluckList.class) + " pl " +
+                        "ON pl.id = e.id WHERE e.location_location_id = l.location_id)) ranked " +
+                        "WHERE ranked.position IN (:positions)")
+                .setParameter("positions", positions)
+                .getResultList();
+
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    @Override
+    public Optional<KeyRange> findIdRange() {
+        var range = (Object[]) this.entityManager.createNativeQuery(
+                        "SELECT MIN(location_id), MAX(location_id) FROM location")
+                .getSingleResult();
+
+        return range[0] == null
+                ? Optional.empty()
+                : Optional.of(new KeyRange(((Number) range[0]).longValue(), ((Number) range[1]).longValue()));
+    }
+
+    @Override
+    public List<Long> findPluckListIdsAtOrAfter(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        var probes = new ArrayList<String>(ids.size());
+        for (var i = 0; i < ids.size(); i++) {
+            probes.add("(SELECT l.location_id FROM location l WHERE l.location_id >= :id" + i + " AND (" +
+                    "NOT EXISTS (SELECT 1 FROM location_entity e WHERE e.location_location_id = l.location_id) " +
+                    "OR EXISTS (SELECT 1 FROM location_entity e JOIN " + this.mapping.rowsOf(PluckList.class) + " pl " +
+                    "ON pl.id = e.id WHERE e.location_location_id = l.location_id)) " +
+                    "ORDER BY l.location_id FETCH FIRST 1 ROWS ONLY)");
+        }
+
+        var query = this.entityManager.createNativeQuery(String.join(" UNION ALL ", probes));
+        var i = 0;
+        for (var id : ids) {
+            query.setParameter("id" + i++, id);
+        }
+
+        List<?> found = query.getResultList();
+        return found.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+}
@@ -1,24 +1,155 @@
 package no.ntnu.bachelor.voicepick.repositories;
 
+import jakarta.persistence.QueryHint;
 import no.ntnu.bachelor.voicepick.models.Location;
+import no.ntnu.bachelor.voicepick.models.LocationEntity;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface LocationRepository extends JpaRepository<Location, Long> {
+public interface LocationRepository extends JpaRepository<Location, Long>, LocationNativeQueries {
+
+    int STREAM_FETCH_SIZE = 500;
 
     Optional<Location> findByCode(String code);
 
-    @Query("SELECT DISTINCT l FROM Location l LEFT JOIN l.entities e WHERE e.id IS NULL " +
-            "UNION " +
-            "SELECT DISTINCT l FROM Location l JOIN l.entities e WHERE TYPE(e) = PluckList")
+    /**
+     * The code of a location together with what is needed to refer to and verify it
+     */
+    interface CodeEntry {
+        String getCode();
+        Long getId();
+        int getControlDigits();
+    }
+
+    @Query("SELECT l.code FROM Location l")
+    List<String> findAllCodes();
+
+    /**
+     * Returns the locations in a zone within a range of aisles and slots, ordered by aisle, slot
+     * and level. Backed by the index on zone, aisle, slot and level.
+     *
+     * @param zone of the locations
+     * @param fromAisle the index of the first aisle, inclusive
+     * @param toAisle the index of the last aisle, inclusive
+     * @param fromSlot the first slot, inclusive
+     * @param toSlot the last slot, inclusive
+     * @return a list of the locations in the range
+     */
+    @Query("SELECT l FROM Location l WHERE l.zone = :zone " +
+            "AND l.aisle BETWEEN :fromAisle AND :toAisle AND l.slot BETWEEN :fromSlot AND :toSlot " +
+            "ORDER BY l.aisle, l.slot, l.level")
+    List<Location> findByCoordinates(@Param("zone") int zone,
+                                     @Param("fromAisle") int fromAisle, @Param("toAisle") int toAisle,
+                                     @Param("fromSlot") int fromSlot, @Param("toSlot") int toSlot);
+
+    @Query("SELECT l.id FROM Location l")
+    List<Long> findAllIds();
+
+    /**
+     * The number of entities of some type stored at a location
+     */
+    interface EntityCount {
+        Long getLocationId();
+        long getEntities();
+    }
+
+    @Query("SELECT p.location.id AS locationId, COUNT(p) AS entities FROM Product p " +
+            "WHERE p.location IS NOT NULL GROUP BY p.location.id")
+    List<EntityCount> countProductsByLocation();
+
+    @Query("SELECT p.location.id AS locationId, COUNT(p) AS entities FROM PluckList p " +
+            "WHERE p.location IS NOT NULL GROUP BY p.location.id")
+    List<EntityCount> countPluckListsByLocation();
+
+    @Query("SELECT l.code AS code, l.id AS id, l.controlDigits AS controlDigits FROM Location l ORDER BY l.id")
+    List<CodeEntry> findCodeEntries(Pageable pageable);
+
+    @Query("SELECT l.code AS code, l.id AS id, l.controlDigits AS controlDigits FROM Location l WHERE l.code = :code")
+    Optional<CodeEntry> findCodeEntryByCode(@Param("code") String code);
+
+    @Query("SELECT l.code AS code, l.id AS id, l.controlDigits AS controlDigits FROM Location l WHERE l.code IN :codes")
+    List<CodeEntry> findCodeEntriesByCodes(@Param("codes") Collection<String> codes);
+
+    /**
+     * Returns a location together with every entity stored at it, in one query
+     *
+     * @param id of the location
+     * @return an optional with the location found
+     */
+    @EntityGraph(Location.WITH_ENTITIES)
+    Optional<Location> findWithEntitiesById(Long id);
+
+    /**
+     * Returns the entities stored at a location with an id greater than {@code after}, ordered
+     * by id. Used to page through a location with the id of the last entity seen as the cursor.
+     *
+     * @param id of the location
+     * @param after the id to continue after
+     * @param pageable limiting the number of entities returned
+     * @return a list of entities, ordered by id
+     */
+    @Query("SELECT e FROM LocationEntity e WHERE e.location.id = :id AND e.id > :after ORDER BY e.id")
+    List<LocationEntity> findEntitiesByLocationIdAfter(@Param("id") Long id, @Param("after") long after, Pageable pageable);
+
+    /**
+     * Returns all entities stored at a location, ordered by id. The entities are fetched from the
+     * database {@value #STREAM_FETCH_SIZE} at a time as the stream is consumed. The stream must be
+     * consumed and closed inside a transaction.
+     *
+     * @param id of the location
+     * @return a stream of entities, ordered by id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("SELECT e FROM LocationEntity e WHERE e.location.id = :id ORDER BY e.id")
+    Stream<LocationEntity> streamEntitiesByLocationId(@Param("id") Long id);
+
+    /**
+     * Returns the locations that are either empty or hold a pluck list. Both conditions are
+     * anti/semi-joins on the indexed location column of {@code location_entity}, so every location
+     * is checked with index lookups instead of joining it to all of its entities.
+     *
+     * @return a list of locations that can hold a pluck list
+     */
+    @Query("SELECT l FROM Location l " +
+            "WHERE NOT EXISTS (SELECT 1 FROM LocationEntity e WHERE e.location = l) " +
+            "OR EXISTS (SELECT 1 FROM PluckList e WHERE e.location = l)")
     List<Location> findByPluckList();
 
-    @Query("SELECT DISTINCT l FROM Location l LEFT JOIN l.entities e WHERE e.id IS NULL " +
-            "UNION " +
-            "SELECT DISTINCT l FROM Location l JOIN l.entities e WHERE TYPE(e) = Product")
+    /**
+     * Returns the ids of the locations that are either empty or hold a pluck list, lowest first
+     *
+     * @param pageable limiting the number of ids returned
+     * @return a list of location ids, ordered
+     */
+    @Query("SELECT l.id FROM Location l " +
+            "WHERE NOT EXISTS (SELECT e FROM LocationEntity e WHERE e.location = l) " +
+            "OR EXISTS (SELECT e FROM PluckList e WHERE e.location = l) " +
+            "ORDER BY l.id")
+    List<Long> findPluckListIds(Pageable pageable);
+
+    @Query("SELECT COUNT(l) FROM Location l " +
+            "WHERE NOT EXISTS (SELECT e FROM LocationEntity e WHERE e.location = l) " +
+            "OR EXISTS (SELECT e FROM PluckList e WHERE e.location = l)")
+    long countByPluckList();
+
+    /**
+     * Returns the locations that are either empty or hold a product. See {@link #findByPluckList()}.
+     *
+     * @return a list of locations that can hold a product
+     */
+    @Query("SELECT l FROM Location l " +
+            "WHERE NOT EXISTS (SELECT 1 FROM LocationEntity e WHERE e.location = l) " +
+            "OR EXISTS (SELECT 1 FROM Product e WHERE e.location = l)")
     List<Location> findByProduct();
 
     void deleteById(String code);
@@ -0,0 +1,53 @@
+package no.ntnu.bachelor.voicepick.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler.KeyRange;
+
+/**
+ * Native queries of {@link ProductRepository} that depend on how products are stored, see
+ * {@link no.ntnu.bachelor.voicepick.models.LocationEntityMapping}
+ */
+public interface ProductNativeQueries {
+
+  /**
+   * Returns the ids of the products with a location and in stock found at the given positions,
+   * when all such products are ordered by id. Used to pick the same products every time for
+   * the same positions, as long as the stored products do not change.
+   *
+   * @param positions the 1-based positions of the products to return
+   * @return a list of product ids, in no particular order
+   */
+  List<Long> findAvailableIdsAtPositions(Collection<Long> positions);
+
+  /**
+   * Returns the lowest and highest id of all products, available or not. Read from the ends of
+   * the primary key, without scanning the products.
+   *
+   * @return optional containing the range of ids, or empty if there are no products
+   */
+  Optional<KeyRange> findIdRange();
+
+  /**
+   * Returns, for each id given, the id of the first product with a location and in stock at or
+   * after it. Each id is looked up with a scan of the primary key from the id, which stops at the
+   * first available product.
+   *
+   * @param ids to look up from
+   * @return a list of product ids, one for each id with an available product at or after it.
+   * May contain the same id more than once
+   */
+  List<Long> findAvailableIdsAtOrAfter(Collection<Long> ids);
+
+  /**
+   * Deletes the rows of the products with the given ids, without loading them. Pending changes
+   * are flushed first, and the persistence context is cleared after.
+   *
+   * @param ids of the products to delete
+   * @return the number of products deleted
+   */
+  int deleteRows(Collection<Long> ids);
+
+}
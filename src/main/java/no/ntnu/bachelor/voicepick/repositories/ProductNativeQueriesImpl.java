@@ -0,0 +1,93 @@
+package no.ntnu.bachelor.voicepick.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import jakarta.persistence.EntityManager;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler.KeyRange;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.Status;
+
+class ProductNativeQueriesImpl implements ProductNativeQueries {
+
+  private final EntityManager entityManager;
+  private final LocationEntityMapping mapping;
+
+  ProductNativeQueriesImpl(EntityManager entityManager,
+                           @Value("${location-entity.mapping:JOINED}") LocationEntityMapping mapping) {
+    this.entityManager = entityManager;
+    this.mapping = mapping;
+  }
+
+  @Override
+  public List<Long> findAvailableIdsAtPositions(Collection<Long> positions) {
+    List<?> ids = this.entityManager.createNativeQuery("SELECT ranked.id FROM (" +
+            "SELECT e.id AS id, ROW_NUMBER() OVER (ORDER BY e.id) AS position " +
+            "FROM " + this.mapping.rowsOf(Product.class) + " p JOIN location_entity e ON e.id = p.id " +
+            "WHERE e.location_location_id IS NOT NULL AND p.status = :status) ranked " +
+            "WHERE ranked.position IN (:positions)")
+        .setParameter("status", Status.READY.ordinal())
+        .setParameter("positions", positions)
+        .getResultList();
+
+    return ids.stream().map(id -> ((Number) id).longValue()).toList();
+  }
+
+  @Override
+  public Optional<KeyRange> findIdRange() {
+    var range = (Object[]) this.entityManager.createNativeQuery(
+            "SELECT MIN(id), MAX(id) FROM " + this.mapping.tableOf(Product.class))
+        .getSingleResult();
+
+    return range[0] == null
+        ? Optional.empty()
+        : Optional.of(new KeyRange(((Number) range[0]).longValue(), ((Number) range[1]).longValue()));
+  }
+
+  @Override
+  public List<Long> findAvailableIdsAtOrAfter(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    var probes = new ArrayList<String>(ids.size());
+    for (var i = 0; i < ids.size(); i++) {
+      probes.add("(SELECT e.id FROM " + this.mapping.rowsOf(Product.class) + " p JOIN location_entity e ON e.id = p.id " +
+          "WHERE e.id >= :id" + i + " AND e.location_location_id IS NOT NULL AND p.status = :status " +
+          "ORDER BY e.id FETCH FIRST 1 ROWS ONLY)");
+    }
+
+    var query = this.entityManager.createNativeQuery(String.join(" UNION ALL ", probes))
+        .setParameter("status", Status.READY.ordinal());
+    var i = 0;
+    for (var id : ids) {
+      query.setParameter("id" + i++, id);
+    }
+
+    List<?> found = query.getResultList();
+    return found.stream().map(id -> ((Number) id).longValue()).toList();
+  }
+
+  @Override
+  public int deleteRows(Collection<Long> ids) {
+    this.entityManager.flush();
+
+    if (this.mapping == LocationEntityMapping.JOINED) {
+      this.entityManager.createNativeQuery("DELETE FROM " + this.mapping.tableOf(Product.class) + " WHERE id IN (:ids)")
+          .setParameter("ids", ids)
+          .executeUpdate();
+    }
+    var deleted = this.entityManager.createNativeQuery("DELETE FROM location_entity WHERE id IN (:ids)")
+        .setParameter("ids", ids)
+        .executeUpdate();
+
+    this.entityManager.clear();
+    return deleted;
+  }
+
+}
@@ -1,15 +1,144 @@
 package no.ntnu.bachelor.voicepick.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.Status;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductNativeQueries {
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+  int STREAM_FETCH_SIZE = 1000;
 
   List<Product> findByLocationIsNotNull();
 
+  List<Product> findByLocationIsNotNullAndStatus(Status status);
+
+  /**
+   * Returns the ids of products that have a location and are in stock, lowest first
+   *
+   * @param pageable limiting the number of ids returned
+   * @return a list of product ids, ordered
+   */
+  @Query("SELECT p.id FROM Product p WHERE p.location IS NOT NULL " +
+      "AND p.status = no.ntnu.bachelor.voicepick.models.Status.READY ORDER BY p.id")
+  List<Long> findAvailableIds(Pageable pageable);
+
+  long countByLocationIsNotNullAndStatus(Status status);
+
   List<Product> findByName(String name);
 
+  /**
+   * The id of a product and of the location it is stored at
+   */
+  interface ProductLocation {
+    Long getId();
+    Long getLocationId();
+  }
+
+  /**
+   * Returns the products with an id greater than the one given, ordered by id, together with
+   * their location. Used to page through the products by the last id of the previous page.
+   *
+   * @param after the id to continue after
+   * @param available {@code true} to only return products that have a location and are in stock
+   * @param pageable limiting the number of products returned
+   * @return a list of products, ordered by id
+   */
+  @Query("SELECT p FROM Product p LEFT JOIN FETCH p.location " +
+      "WHERE p.id > :after AND (:available = false OR " +
+      "(p.location IS NOT NULL AND p.status = no.ntnu.bachelor.voicepick.models.Status.READY)) ORDER BY p.id")
+  List<Product> findAfter(@Param("after") long after, @Param("available") boolean available, Pageable pageable);
+
+  /**
+   * Returns all products, ordered by id, together with their location. The products are fetched
+   * from the database {@value #STREAM_FETCH_SIZE} at a time as the stream is consumed. The stream
+   * must be consumed and closed inside a transaction.
+   *
+   * @param available {@code true} to only return products that have a location and are in stock
+   * @return a stream of products, ordered by id
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+  @Query("SELECT p FROM Product p LEFT JOIN FETCH p.location " +
+      "WHERE :available = false OR " +
+      "(p.location IS NOT NULL AND p.status = no.ntnu.bachelor.voicepick.models.Status.READY) ORDER BY p.id")
+  Stream<Product> streamAll(@Param("available") boolean available);
+
+  /**
+   * The id and name of a product
+   */
+  interface ProductName {
+    Long getId();
+    String getName();
+  }
+
+  /**
+   * Streams the id and name of every product. Must be consumed in a transaction, and closed.
+   *
+   * @return a stream of the names of all products
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+  @Query("SELECT p.id AS id, p.name AS name FROM Product p")
+  Stream<ProductName> streamNames();
+
+  @Query("SELECT p.id AS id, l.id AS locationId FROM Product p LEFT JOIN p.location l WHERE p.name = :name")
+  List<ProductLocation> findLocationsByName(@Param("name") String name);
+
+  /**
+   * Reads the current quantity of a product, without loading the product. That is the quantity
+   * stored on it plus the stock movements not yet applied to it, read at the same time.
+   *
+   * @param id of the product
+   * @return optional containing the quantity, or empty if there is no product with the id
+   */
+  @Query("SELECT p.quantity + COALESCE((SELECT SUM(m.amount) FROM StockMovement m " +
+      "WHERE m.productId = p.id AND m.applied = false), 0) FROM Product p WHERE p.id = :id")
+  Optional<Long> findQuantityById(@Param("id") Long id);
+
+  /**
+   * The quantity of a product at the time it was read
+   */
+  interface StockLevel {
+    Long getId();
+    int getQuantity();
+  }
+
+  /**
+   * Locks the products with the given ids, and returns their stored quantity. Products without
+   * stock are locked as well, since stock movements not yet applied may have changed it. Products
+   * already locked by another transaction are skipped rather than waited for, on databases that
+   * support it. The locks are held until the transaction ends.
+   *
+   * @param ids of the products to lock
+   * @return the stock level of each product locked, ordered by id
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("SELECT p.id AS id, p.quantity AS quantity FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+  List<StockLevel> lockInStock(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Locks the products with the given ids, waiting for other transactions holding them. The
+   * locks are held until the transaction ends.
+   *
+   * @param ids of the products to lock
+   * @return the ids of the products locked, ordered
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p.id FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+  List<Long> lockAll(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,51 @@
+package no.ntnu.bachelor.voicepick.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import no.ntnu.bachelor.voicepick.models.StockMovement;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+  /**
+   * A movement that is not yet applied to the quantity of its product
+   */
+  interface PendingMovement {
+    Long getId();
+    Long getProductId();
+    int getAmount();
+  }
+
+  /**
+   * Locks the movements of the given products that are not yet applied. The locks are held
+   * until the transaction ends.
+   *
+   * @param productIds of the products
+   * @return the movements, ordered by id
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT m.id AS id, m.productId AS productId, m.amount AS amount FROM StockMovement m " +
+      "WHERE m.applied = false AND m.productId IN :productIds ORDER BY m.id")
+  List<PendingMovement> lockUnapplied(@Param("productIds") Collection<Long> productIds);
+
+  /**
+   * Returns the ids of the products with movements that are not yet applied
+   *
+   * @return the ids of the products, ordered
+   */
+  @Query("SELECT DISTINCT m.productId FROM StockMovement m WHERE m.applied = false ORDER BY m.productId")
+  List<Long> findProductIdsWithUnapplied();
+
+  @Modifying
+  @Query("UPDATE StockMovement m SET m.applied = true WHERE m.id IN :ids")
+  int markApplied(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,190 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import no.ntnu.bachelor.voicepick.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the id and control digits of locations in memory, keyed by their code, so looking up a
+ * location by code does not need the database. The directory is filled at startup and kept up to
+ * date by {@link LocationService} as locations are added and deleted.
+ *
+ * <p>The directory holds at most {@code location.directory.max-size} locations. Codes that are not
+ * in the directory are looked up in the database, and added if there is room. Codes that are not
+ * found are never cached, so a lookup only ever misses the directory, never the location.
+ *
+ * <p>A reload builds a new directory and then replaces the old one, so lookups made during a
+ * reload are served from the old directory.
+ */
+@Service
+public class LocationDirectory {
+
+    private static final String METRIC_PREFIX = "location.directory";
+
+    /**
+     * What the directory knows about a location
+     *
+     * @param id of the location
+     * @param controlDigits of the location
+     */
+    public record Entry(Long id, int controlDigits) {
+    }
+
+    private final LocationRepository locationRepository;
+    private final int maxSize;
+
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * The codes removed since a reload started reading the database, or {@code null} when no
+     * reload is running
+     */
+    private volatile Set<String> removedDuringReload;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LocationDirectory(LocationRepository locationRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${location.directory.max-size:100000}") int maxSize) {
+        this.locationRepository = locationRepository;
+        this.maxSize = maxSize;
+
+        this.hits = lookupCounter("hit", meterRegistry);
+        this.misses = lookupCounter("miss", meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, LocationDirectory::size)
+                .description("Locations held in the directory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        this.reload();
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC_PREFIX + ".lookups")
+                .description("Lookups of locations by code")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the content of the directory with the locations in the database, up to the size
+     * bound of the directory. Runs every {@code location.directory.reload-interval} milliseconds
+     * to pick up locations changed outside the application.
+     *
+     * <p>Locations removed while the database is read are left out of the new directory, as the
+     * database may have been read before they were deleted. Locations added in the meantime are
+     * looked up again when they are first used.
+     */
+    @Scheduled(initialDelayString = "${location.directory.reload-interval:300000}",
+            fixedDelayString = "${location.directory.reload-interval:300000}")
+    public synchronized void reload() {
+        if (this.maxSize <= 0) {
+            return;
+        }
+
+        var removed = ConcurrentHashMap.<String>newKeySet();
+        this.removedDuringReload = removed;
+        try {
+            var codeEntries = this.locationRepository.findCodeEntries(PageRequest.of(0, this.maxSize));
+            var reloaded = new ConcurrentHashMap<String, Entry>(codeEntries.size() * 2);
+            codeEntries.forEach(entry -> reloaded.put(entry.getCode(), new Entry(entry.getId(), entry.getControlDigits())));
+            reloaded.keySet().removeAll(removed);
+
+            this.entries = reloaded;
+        } finally {
+            this.removedDuringReload = null;
+        }
+        // Codes removed from the old directory before it was replaced
+        this.entries.keySet().removeAll(removed);
+    }
+
+    /**
+     * Returns the location with the code given
+     *
+     * @param code of the location
+     * @return an optional with the location found. If no location was found,
+     * an empty optional is returned
+     */
+    public Optional<Entry> find(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+
+        var entry = this.entries.get(code);
+        if (entry != null) {
+            this.hits.increment();
+            return Optional.of(entry);
+        }
+
+        this.misses.increment();
+        var found = this.locationRepository.findCodeEntryByCode(code)
+                .map(codeEntry -> new Entry(codeEntry.getId(), codeEntry.getControlDigits()));
+        found.ifPresent(value -> this.add(code, value));
+        return found;
+    }
+
+    /**
+     * Adds a location to the directory. If called in a transaction, the location is added once
+     * the transaction commits.
+     *
+     * @param code of the location
+     * @param id of the location
+     * @param controlDigits of the location
+     */
+    public void put(String code, Long id, int controlDigits) {
+        var entry = new Entry(id, controlDigits);
+        TransactionCallbacks.afterCommit(() -> this.add(code, entry));
+    }
+
+    /**
+     * Removes a location from the directory. The location is removed at once, even if called in
+     * a transaction. Should the transaction roll back, the location is only missing from the
+     * directory until it is next looked up. If the transaction commits, it is removed again, in
+     * case a reload read the location before it was deleted.
+     *
+     * @param code of the location
+     */
+    public void remove(String code) {
+        this.evict(code);
+        TransactionCallbacks.afterCommit(() -> this.evict(code));
+    }
+
+    /**
+     * Returns the number of locations in the directory
+     *
+     * @return the number of locations held
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    private void evict(String code) {
+        // Noted before removing, so a reload replacing the directory in between still leaves it out
+        var removed = this.removedDuringReload;
+        if (removed != null) {
+            removed.add(code);
+        }
+        this.entries.remove(code);
+    }
+
+    private void add(String code, Entry entry) {
+        var entries = this.entries;
+        if (entries.size() < this.maxSize || entries.containsKey(code)) {
+            entries.put(code, entry);
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.dtos.AddLocationRequest;
+import no.ntnu.bachelor.voicepick.dtos.ImportResult;
+import no.ntnu.bachelor.voicepick.dtos.ImportRowError;
+import no.ntnu.bachelor.voicepick.models.Location;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports locations in bulk from CSV or NDJSON. The body is read one line at a time, and
+ * locations are saved in chunks of {@value #CHUNK_SIZE}, each chunk in its own transaction.
+ * Saving a chunk is sent in JDBC batches of {@code hibernate.jdbc.batch_size}.
+ *
+ * <p>Every code already stored is read once before the import, so duplicates are found without
+ * a query per row. Rows that cannot be parsed, or that have a code already stored or seen earlier
+ * in the same import, are rejected and reported without stopping the import. If a chunk cannot
+ * be saved, all of its rows are rejected and the import goes on with the next chunk.
+ */
+@RequiredArgsConstructor
+@Service
+public class LocationImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final LocationRepository locationRepository;
+    private final LocationDirectory locationDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * A location of the import waiting to be saved, with the row it was read from
+     */
+    private record PendingLocation(long row, Location location) {
+    }
+
+    /**
+     * A parser of a single row of an import
+     */
+    @FunctionalInterface
+    private interface RowParser {
+        /**
+         * @return the location of the row, or {@code null} if the row should be skipped
+         * @throws IllegalArgumentException if the row is not valid
+         */
+        AddLocationRequest parse(String line, long row);
+    }
+
+    /**
+     * Imports locations from CSV with a code and control digits on each line, like
+     * {@code H09,123}. A first line of column names is skipped.
+     *
+     * @param body to read the locations from
+     * @return a summary of the import
+     * @throws IOException if the body could not be read
+     */
+    public ImportResult importCsv(InputStream body) throws IOException {
+        return this.importRows(body, LocationImportService::parseCsv);
+    }
+
+    /**
+     * Imports locations from newline delimited JSON, with an object like
+     * {@code {"code": "H09", "controlDigits": 123}} on each line
+     *
+     * @param body to read the locations from
+     * @return a summary of the import
+     * @throws IOException if the body could not be read
+     */
+    public ImportResult importNdjson(InputStream body) throws IOException {
+        return this.importRows(body, this::parseJson);
+    }
+
+    private ImportResult importRows(InputStream body, RowParser parser) throws IOException {
+        var start = System.nanoTime();
+        Set<String> codes = new HashSet<>(this.locationRepository.findAllCodes());
+
+        var imported = 0;
+        var rejected = 0;
+        var errors = new ArrayList<ImportRowError>();
+        var chunk = new ArrayList<PendingLocation>(CHUNK_SIZE);
+
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    var request = parser.parse(line, row);
+                    if (request == null) {
+                        continue;
+                    }
+
+                    var location = new Location(request.getCode().strip(), request.getControlDigits());
+                    if (!codes.add(location.getCode())) {
+                        throw new IllegalArgumentException("Location with code " + location.getCode() + " already exists");
+                    }
+                    chunk.add(new PendingLocation(row, location));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    reject(errors, row, e.getMessage());
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    var saved = this.save(chunk, codes, errors);
+                    imported += saved;
+                    rejected += chunk.size() - saved;
+                    chunk.clear();
+                }
+            }
+        }
+        var saved = this.save(chunk, codes, errors);
+        imported += saved;
+        rejected += chunk.size() - saved;
+
+        var elapsedNanos = System.nanoTime() - start;
+        var rowsPerSecond = elapsedNanos == 0 ? 0 : (imported + rejected) * 1e9 / elapsedNanos;
+        return new ImportResult(imported, rejected, errors, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    /**
+     * Saves a chunk of locations in one transaction. If the transaction fails, every row of the
+     * chunk is rejected, and its codes are no longer counted as taken by the import.
+     *
+     * @return the number of locations saved
+     */
+    private int save(List<PendingLocation> chunk, Set<String> codes, List<ImportRowError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        var locations = chunk.stream().map(PendingLocation::location).toList();
+        try {
+            this.transactionTemplate.executeWithoutResult(status ->
+                    this.locationRepository.saveAll(locations).forEach(location ->
+                            this.locationDirectory.put(location.getCode(), location.getId(), location.getControlDigits())));
+        } catch (DataAccessException | TransactionException e) {
+            var message = "The chunk of rows " + chunk.get(0).row() + " to " + chunk.get(chunk.size() - 1).row()
+                    + " could not be saved";
+            for (var pending : chunk) {
+                codes.remove(pending.location().getCode());
+                reject(errors, pending.row(), message);
+            }
+            return 0;
+        }
+
+        return chunk.size();
+    }
+
+    private static void reject(List<ImportRowError> errors, long row, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportRowError(row, message));
+        }
+    }
+
+    private static AddLocationRequest parseCsv(String line, long row) {
+        var columns = line.split("[,;]", -1);
+        if (columns.length != 2) {
+            throw new IllegalArgumentException("Expected 2 columns, got " + columns.length);
+        }
+
+        var code = unquote(columns[0]);
+        var controlDigits = unquote(columns[1]);
+        try {
+            return new AddLocationRequest(code, Integer.parseInt(controlDigits));
+        } catch (NumberFormatException e) {
+            if (row == 1) {
+                // Column names
+                return null;
+            }
+            throw new IllegalArgumentException("Control digits must be a number, got " + controlDigits);
+        }
+    }
+
+    private static String unquote(String column) {
+        var value = column.strip();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).strip();
+        }
+        return value;
+    }
+
+    private AddLocationRequest parseJson(String line, long row) {
+        try {
+            var node = this.objectMapper.readTree(line);
+            var code = node.get("code");
+            var controlDigits = node.get("controlDigits");
+            if (code == null || !code.isTextual()) {
+                throw new IllegalArgumentException("Missing code");
+            }
+            if (controlDigits == null || !controlDigits.canConvertToInt() || !controlDigits.isIntegralNumber()) {
+                throw new IllegalArgumentException("Control digits must be a number");
+            }
+
+            return new AddLocationRequest(code.asText(), controlDigits.asInt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+}
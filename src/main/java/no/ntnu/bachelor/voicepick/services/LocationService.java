@@ -1,22 +1,38 @@
 package no.ntnu.bachelor.voicepick.services;
 
 import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.dtos.LocationEntityPage;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.LocationCode;
 import no.ntnu.bachelor.voicepick.models.Location;
 import no.ntnu.bachelor.voicepick.models.LocationEntity;
 import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 @RequiredArgsConstructor
 @Service
 public class LocationService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final LocationRepository locationRepository;
+    private final LocationDirectory locationDirectory;
+    private final OccupancyIndex occupancyIndex;
+    private final EntityManager entityManager;
 
     public List<Location> getAll() {
         return this.locationRepository.findAll();
@@ -33,6 +49,41 @@ public class LocationService {
         return this.locationRepository.findByCode(code);
     }
 
+    /**
+     * Returns a reference to the location with the code given, without loading the location.
+     * The id of the location is taken from the {@link LocationDirectory}, so the database is
+     * usually not queried at all.
+     *
+     * @param code of the location
+     * @return an optional with a reference to the location. If no location was found,
+     * an empty optional is returned
+     */
+    public Optional<Location> getLocationReferenceByCode(String code) {
+        return this.locationDirectory.find(code).map(entry -> this.locationRepository.getReferenceById(entry.id()));
+    }
+
+    /**
+     * Returns the locations in a zone within a range of aisles and slots, ordered by aisle,
+     * slot and level
+     *
+     * @param zone of the locations
+     * @param fromAisle the letters of the first aisle, like {@code H}
+     * @param toAisle the letters of the last aisle, or {@code null} for only the first aisle
+     * @param fromSlot the first slot, or {@code null} to start at the first slot of the aisle
+     * @param toSlot the last slot, or {@code null} to end at the last slot of the aisle
+     * @return a list of the locations in the range
+     * @throws IllegalArgumentException if an aisle is not given as letters
+     */
+    public List<Location> getLocationsInRange(int zone, String fromAisle, String toAisle, Integer fromSlot, Integer toSlot) {
+        var from = LocationCode.parseAisle(fromAisle)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid aisle: " + fromAisle));
+        var to = toAisle == null ? from : LocationCode.parseAisle(toAisle)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid aisle: " + toAisle));
+
+        return this.locationRepository.findByCoordinates(zone, from, to,
+                fromSlot == null ? 0 : fromSlot, toSlot == null ? Integer.MAX_VALUE : toSlot);
+    }
+
     /**
      * Returns a list of all locations associated with a product
      *
@@ -51,6 +102,90 @@ public class LocationService {
         return this.locationRepository.findByPluckList();
     }
 
+    /**
+     * Returns a random location that is either empty or holds a pluck list
+     *
+     * @param random the generator to draw from
+     * @return an optional with the location picked. If no such location exists,
+     * an empty optional is returned
+     */
+    public Optional<Location> getRandomPluckListLocation(RandomGenerator random) {
+        return this.getRandomPluckListLocations(1, random).stream().findFirst();
+    }
+
+    /**
+     * Returns up to {@code max} random locations that are either empty or hold a pluck list. The
+     * locations are picked by probing random ids, see {@link KeyRangeSampler}, so the work done
+     * does not grow with the number of locations.
+     *
+     * @param max the maximum number of locations to return
+     * @param random the generator to draw from
+     * @return a list of distinct random locations, ordered by id
+     */
+    public List<Location> getRandomPluckListLocations(int max, RandomGenerator random) {
+        var range = this.locationRepository.findIdRange();
+        if (range.isEmpty()) {
+            return List.of();
+        }
+
+        var ids = KeyRangeSampler.sample(range.get(), max, random, this.locationRepository::findPluckListIdsAtOrAfter,
+                limit -> this.locationRepository.findPluckListIds(PageRequest.of(0, limit)));
+
+        var locations = new ArrayList<>(this.locationRepository.findAllById(ids));
+        locations.sort(Comparator.comparing(Location::getId));
+        return locations;
+    }
+
+    /**
+     * Returns up to {@code max} random locations that are either empty or hold a pluck list,
+     * picked from the {@link OccupancyIndex} without querying the database. The locations are
+     * references, which are only loaded if used.
+     *
+     * @param max the maximum number of locations to return
+     * @param random the generator to draw from
+     * @return a list of distinct random locations
+     */
+    public List<Location> getIndexedRandomPluckListLocations(int max, RandomGenerator random) {
+        return this.occupancyIndex.randomPluckListLocationIds(max, random).stream()
+                .map(this.locationRepository::getReferenceById)
+                .toList();
+    }
+
+    /**
+     * Rebuilds the {@link OccupancyIndex} from the database
+     *
+     * @return {@code true} if the index was rebuilt, or {@code false} if locations kept changing
+     * while the database was read
+     */
+    public boolean resyncOccupancy() {
+        return this.occupancyIndex.resync();
+    }
+
+    /**
+     * Returns the number of locations that are either empty or hold a pluck list
+     *
+     * @return the number of locations that can hold a pluck list
+     */
+    public long countPluckListLocations() {
+        return this.locationRepository.countByPluckList();
+    }
+
+    /**
+     * Returns the locations that are either empty or hold a pluck list at the given positions,
+     * when all such locations are ordered by id. The same positions give the same locations as
+     * long as the stored locations do not change.
+     *
+     * @param positions the 1-based positions of the locations to return
+     * @return a list of the locations found, ordered by id
+     */
+    public List<Location> getPluckListLocationsAt(Collection<Long> positions) {
+        var ids = this.locationRepository.findPluckListIdsAtPositions(positions);
+
+        var locations = new ArrayList<>(this.locationRepository.findAllById(ids));
+        locations.sort(Comparator.comparing(Location::getId));
+        return locations;
+    }
+
     /**
      * Returns a set of all entities stored at a specific location
      *
@@ -58,7 +193,7 @@ public class LocationService {
      * @return a set of all entities stored at the location with the id provided
      */
     public Set<LocationEntity> getLocationEntities(Long id) {
-        var optionalLocation = this.locationRepository.findById(id);
+        var optionalLocation = this.locationRepository.findWithEntitiesById(id);
         if (optionalLocation.isEmpty()) {
             throw new EntityNotFoundException("Could not find location with id: " + id);
         }
@@ -66,6 +201,67 @@ public class LocationService {
         return optionalLocation.get().getEntities();
     }
 
+    /**
+     * Returns whether a location with the id given exists
+     *
+     * @param id of the location
+     * @return {@code true} if the location exists, {@code false} otherwise
+     */
+    public boolean existsLocation(Long id) {
+        return this.locationRepository.existsById(id);
+    }
+
+    /**
+     * Returns a page of the entities stored at a location, ordered by id
+     *
+     * @param id of the location
+     * @param cursor the id of the last entity on the previous page, or {@code null} for the first page
+     * @param limit the maximum number of entities on the page, at most {@value #MAX_PAGE_SIZE}
+     * @return a page of entities stored at the location
+     * @throws EntityNotFoundException if no location was found with the id provided
+     * @throws IllegalArgumentException if the limit is out of bounds
+     */
+    public LocationEntityPage getLocationEntities(Long id, Long cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!this.locationRepository.existsById(id)) {
+            throw new EntityNotFoundException("Could not find location with id: " + id);
+        }
+
+        var entities = this.locationRepository.findEntitiesByLocationIdAfter(
+                id, cursor == null ? Long.MIN_VALUE : cursor, PageRequest.of(0, limit));
+        var nextCursor = entities.size() < limit ? null : entities.get(entities.size() - 1).getId();
+        return new LocationEntityPage(entities, nextCursor);
+    }
+
+    /**
+     * Passes every entity stored at a location to an action, ordered by id. The entities are read
+     * from the database a few hundred at a time, and are dropped from the persistence context once
+     * handled, so the memory used does not grow with the number of entities at the location.
+     * Lazy associations of an entity can be read by the action, but not after it returns.
+     *
+     * @param id of the location
+     * @param action to perform on each entity
+     * @throws EntityNotFoundException if no location was found with the id provided
+     */
+    @Transactional(readOnly = true)
+    public void forEachLocationEntity(Long id, Consumer<LocationEntity> action) {
+        if (!this.locationRepository.existsById(id)) {
+            throw new EntityNotFoundException("Could not find location with id: " + id);
+        }
+
+        try (var entities = this.locationRepository.streamEntitiesByLocationId(id)) {
+            var handled = 0;
+            for (var iterator = entities.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next());
+                if (++handled % LocationRepository.STREAM_FETCH_SIZE == 0) {
+                    this.entityManager.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Adds a location to the repository
      *
@@ -73,20 +269,22 @@ public class LocationService {
      * @param controlDigits of the location
      */
     public void addLocation(String code, int controlDigits) {
-        var optionalLocation = this.locationRepository.findByCode(code);
+        var optionalLocation = this.locationDirectory.find(code);
         if (optionalLocation.isPresent()) {
             throw new EntityExistsException("Location with code " + code + "already exists");
         }
 
-        this.locationRepository.save(new Location(code, controlDigits));
+        var location = this.locationRepository.save(new Location(code, controlDigits));
+        this.locationDirectory.put(location.getCode(), location.getId(), location.getControlDigits());
     }
 
     public void deleteLocation(String code) {
-        var optionalLocation = this.locationRepository.findByCode(code);
+        var optionalLocation = this.locationDirectory.find(code);
         if (optionalLocation.isEmpty()) {
             throw new EntityNotFoundException("Could not find location with code: " + code);
         }
-        this.locationRepository.deleteById(optionalLocation.get().getId());
+        this.locationRepository.deleteById(optionalLocation.get().id());
+        this.locationDirectory.remove(code);
     }
 
 }
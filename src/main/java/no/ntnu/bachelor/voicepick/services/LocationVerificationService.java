@@ -0,0 +1,120 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.dtos.LocationMismatches;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies the control digits spoken by pickers to confirm that they are at the right location.
+ *
+ * <p>Verification is on the critical path of every pick, so the control digits are read from the
+ * {@link LocationDirectory}, which is kept up to date as locations are added, imported and
+ * deleted, rather than from the database. The time taken is recorded by the
+ * {@code location.verifications} timer, and the number of wrong digits spoken at each location is
+ * counted, so locations that are often mistaken for others stand out.
+ */
+@Service
+public class LocationVerificationService {
+
+    private static final String METRIC_NAME = "location.verifications";
+    private static final int MAX_DIGITS = 9;
+
+    private final LocationDirectory locationDirectory;
+
+    private final Map<String, LongAdder> mismatches = new ConcurrentHashMap<>();
+    private final Timer verified;
+    private final Timer mismatched;
+    private final Timer unknown;
+
+    public LocationVerificationService(LocationDirectory locationDirectory, MeterRegistry meterRegistry) {
+        this.locationDirectory = locationDirectory;
+
+        this.verified = verificationTimer("verified", meterRegistry);
+        this.mismatched = verificationTimer("mismatch", meterRegistry);
+        this.unknown = verificationTimer("unknown", meterRegistry);
+    }
+
+    private static Timer verificationTimer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder(METRIC_NAME)
+                .description("Verifications of the control digits spoken at a location")
+                .tag("result", result)
+                .serviceLevelObjectives(Duration.ofMillis(1))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the control digits spoken at a location. Spoken digits may be separated by spaces,
+     * like {@code "1 2 3"}, and leading zeros are ignored.
+     *
+     * @param code of the location
+     * @param spokenDigits the control digits spoken
+     * @return {@code true} if the digits are the control digits of the location,
+     * {@code false} if not
+     * @throws IllegalArgumentException if the spoken digits are not a number
+     * @throws EntityNotFoundException if no location was found with the code given
+     */
+    public boolean verify(String code, String spokenDigits) {
+        var digits = parseDigits(spokenDigits);
+        var start = System.nanoTime();
+
+        var entry = this.locationDirectory.find(code);
+        if (entry.isEmpty()) {
+            this.unknown.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new EntityNotFoundException("Could not find location with code: " + code);
+        }
+
+        var match = entry.get().controlDigits() == digits;
+        if (!match) {
+            this.mismatches.computeIfAbsent(code, key -> new LongAdder()).increment();
+        }
+
+        (match ? this.verified : this.mismatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return match;
+    }
+
+    /**
+     * Returns the locations where the wrong control digits have been spoken, with the location
+     * mistaken the most times first
+     *
+     * @param limit the maximum number of locations to return
+     * @return a list of the locations and the number of mismatches at each
+     */
+    public List<LocationMismatches> getMismatches(int limit) {
+        return this.mismatches.entrySet().stream()
+                .map(entry -> new LocationMismatches(entry.getKey(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(LocationMismatches::getMismatches).reversed()
+                        .thenComparing(LocationMismatches::getCode))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Forgets the mismatches counted so far
+     */
+    public void resetMismatches() {
+        this.mismatches.clear();
+    }
+
+    private static int parseDigits(String spokenDigits) {
+        if (spokenDigits == null) {
+            throw new IllegalArgumentException("Control digits cannot be null");
+        }
+
+        var digits = spokenDigits.replaceAll("\\s", "");
+        if (digits.isEmpty() || digits.length() > MAX_DIGITS || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("Control digits must be a number, got " + spokenDigits);
+        }
+        return Integer.parseInt(digits);
+    }
+
+}
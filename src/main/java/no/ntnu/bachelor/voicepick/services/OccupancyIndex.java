@@ -0,0 +1,297 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import jakarta.annotation.PostConstruct;
+import no.ntnu.bachelor.voicepick.events.LocationAddedEvent;
+import no.ntnu.bachelor.voicepick.events.LocationEntityMovedEvent;
+import no.ntnu.bachelor.voicepick.events.LocationRemovedEvent;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSampler;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Keeps track of which locations hold products and which hold pluck lists, so the locations
+ * that can take a product or a pluck list are found without the database.
+ *
+ * <p>Every location is given an ordinal, and the index keeps a bitset over the ordinals for the
+ * locations that exist, the ones holding products and the ones holding pluck lists, along with
+ * the number of each held by every location. The index is built from the database at startup,
+ * and then kept up to date from the events published by {@link no.ntnu.bachelor.voicepick.models.OccupancyListener}
+ * as changes are committed.
+ *
+ * <p>Changes made with bulk queries are not seen by the index. It is therefore rebuilt every
+ * {@code location.occupancy.resync-interval} milliseconds, and can be rebuilt on demand with
+ * {@link #resync()}. The database is read for a rebuild without holding up the index, and the
+ * rebuilt index only replaces the current one if no change was applied in the meantime.
+ * Otherwise the change could be lost, or counted twice, so the database is read again.
+ */
+@Service
+public class OccupancyIndex {
+
+    static final int MAX_RESYNC_ATTEMPTS = 3;
+
+    private final LocationRepository locationRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] locationIds = new long[0];
+    private int[] productCounts = new int[0];
+    private int[] pluckListCounts = new int[0];
+    private final BitSet present = new BitSet();
+    private final BitSet withProducts = new BitSet();
+    private final BitSet withPluckLists = new BitSet();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    /** Counts the changes applied from events, to tell if any were applied during a rebuild */
+    private long generation;
+
+    public OccupancyIndex(LocationRepository locationRepository) {
+        this.locationRepository = locationRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        this.resync();
+    }
+
+    /**
+     * Rebuilds the index from the locations and entities stored in the database. If changes are
+     * applied to the index while the database is read, it is read again, up to
+     * {@value #MAX_RESYNC_ATTEMPTS} times.
+     *
+     * @return {@code true} if the index was rebuilt, or {@code false} if it kept changing and
+     * was left as it was
+     */
+    @Scheduled(initialDelayString = "${location.occupancy.resync-interval:300000}",
+            fixedDelayString = "${location.occupancy.resync-interval:300000}")
+    public synchronized boolean resync() {
+        for (var attempt = 0; attempt < MAX_RESYNC_ATTEMPTS; attempt++) {
+            long generation;
+            this.lock.readLock().lock();
+            try {
+                generation = this.generation;
+            } finally {
+                this.lock.readLock().unlock();
+            }
+
+            var ids = this.locationRepository.findAllIds();
+            var products = this.locationRepository.countProductsByLocation();
+            var pluckLists = this.locationRepository.countPluckListsByLocation();
+
+            this.lock.writeLock().lock();
+            try {
+                if (this.generation == generation) {
+                    this.rebuild(ids, products, pluckLists);
+                    return true;
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+        return false;
+    }
+
+    private void rebuild(List<Long> ids, List<LocationRepository.EntityCount> products,
+                         List<LocationRepository.EntityCount> pluckLists) {
+        this.ordinals = new HashMap<>(ids.size() * 2);
+        this.locationIds = new long[Math.max(ids.size(), 16)];
+        this.productCounts = new int[this.locationIds.length];
+        this.pluckListCounts = new int[this.locationIds.length];
+        this.present.clear();
+        this.withProducts.clear();
+        this.withPluckLists.clear();
+        this.freeOrdinals.clear();
+
+        ids.forEach(this::add);
+        products.forEach(count -> this.change(count.getLocationId(), Product.class, Math.toIntExact(count.getEntities())));
+        pluckLists.forEach(count -> this.change(count.getLocationId(), PluckList.class, Math.toIntExact(count.getEntities())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void on(LocationAddedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            this.generation++;
+            this.add(event.locationId());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void on(LocationRemovedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            this.generation++;
+            var ordinal = this.ordinals.remove(event.locationId());
+            if (ordinal != null) {
+                this.present.clear(ordinal);
+                this.withProducts.clear(ordinal);
+                this.withPluckLists.clear(ordinal);
+                this.productCounts[ordinal] = 0;
+                this.pluckListCounts[ordinal] = 0;
+                this.freeOrdinals.push(ordinal);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void on(LocationEntityMovedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            this.generation++;
+            if (event.fromLocationId() != null) {
+                this.change(event.fromLocationId(), event.type(), -1);
+            }
+            if (event.toLocationId() != null) {
+                this.change(event.toLocationId(), event.type(), 1);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Picks up to {@code max} random locations that are either empty or hold pluck lists
+     *
+     * @param max the maximum number of locations to pick
+     * @param random the generator to draw from
+     * @return a list of distinct location ids, in random order
+     */
+    public List<Long> randomPluckListLocationIds(int max, RandomGenerator random) {
+        this.lock.readLock().lock();
+        try {
+            var candidates = (BitSet) this.present.clone();
+            candidates.andNot(this.withProducts);
+
+            var picked = RandomSampler.sampleIndices(candidates.cardinality(), Math.min(max, candidates.cardinality()), random);
+            return this.idsAtRanks(candidates, picked);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every location that is either empty or holds pluck lists
+     *
+     * @return a list of location ids, in no particular order
+     */
+    public List<Long> pluckListLocationIds() {
+        return this.idsWithout(this.withProducts);
+    }
+
+    /**
+     * Returns every location that is either empty or holds products
+     *
+     * @return a list of location ids, in no particular order
+     */
+    public List<Long> productLocationIds() {
+        return this.idsWithout(this.withPluckLists);
+    }
+
+    /**
+     * Returns the number of locations in the index
+     *
+     * @return the number of locations
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.ordinals.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> idsWithout(BitSet occupied) {
+        this.lock.readLock().lock();
+        try {
+            var candidates = (BitSet) this.present.clone();
+            candidates.andNot(occupied);
+
+            var ids = new ArrayList<Long>(candidates.cardinality());
+            candidates.stream().forEach(ordinal -> ids.add(this.locationIds[ordinal]));
+            return ids;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the locations at the given ranks among the set bits of the candidates.
+     * The ids are returned in the same order as the ranks.
+     */
+    private List<Long> idsAtRanks(BitSet candidates, int[] ranks) {
+        var order = new Integer[ranks.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Integer.compare(ranks[a], ranks[b]));
+
+        var ids = new Long[ranks.length];
+        var rank = 0;
+        var ordinal = candidates.nextSetBit(0);
+        for (var i : order) {
+            for (; rank < ranks[i]; rank++) {
+                ordinal = candidates.nextSetBit(ordinal + 1);
+            }
+            ids[i] = this.locationIds[ordinal];
+        }
+        return Arrays.asList(ids);
+    }
+
+    private int add(Long locationId) {
+        var existing = this.ordinals.get(locationId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int ordinal;
+        if (this.freeOrdinals.isEmpty()) {
+            ordinal = this.ordinals.size();
+            if (ordinal == this.locationIds.length) {
+                var capacity = Math.max(16, ordinal * 2);
+                this.locationIds = Arrays.copyOf(this.locationIds, capacity);
+                this.productCounts = Arrays.copyOf(this.productCounts, capacity);
+                this.pluckListCounts = Arrays.copyOf(this.pluckListCounts, capacity);
+            }
+        } else {
+            ordinal = this.freeOrdinals.pop();
+        }
+
+        this.ordinals.put(locationId, ordinal);
+        this.locationIds[ordinal] = locationId;
+        this.present.set(ordinal);
+        return ordinal;
+    }
+
+    private void change(Long locationId, Class<?> type, int delta) {
+        var ordinal = delta > 0 ? this.add(locationId) : this.ordinals.getOrDefault(locationId, -1);
+        if (ordinal < 0) {
+            return;
+        }
+
+        if (Product.class.isAssignableFrom(type)) {
+            this.productCounts[ordinal] = Math.max(0, this.productCounts[ordinal] + delta);
+            this.withProducts.set(ordinal, this.productCounts[ordinal] > 0);
+        } else if (PluckList.class.isAssignableFrom(type)) {
+            this.pluckListCounts[ordinal] = Math.max(0, this.pluckListCounts[ordinal] + delta);
+            this.withPluckLists.set(ordinal, this.pluckListCounts[ordinal] > 0);
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.dtos.ImportResult;
+import no.ntnu.bachelor.voicepick.dtos.ImportRowError;
+import no.ntnu.bachelor.voicepick.events.LocationEntityMovedEvent;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Imports products in bulk from a JSON array or from NDJSON, with an object like the body of
+ * {@code POST /products} for each product. The body is read as it arrives, and products are
+ * stored in chunks of {@value #CHUNK_SIZE}, each chunk in its own transaction.
+ *
+ * <p>Every row of a chunk is validated before any of it is stored, and the locations of the
+ * whole chunk are resolved with one query. Rows that are not valid, or that name a location that
+ * does not exist, are rejected and reported without stopping the import. The products and their
+ * {@code location_entity} rows are then inserted in JDBC batches. If a chunk cannot be stored,
+ * all of its rows are rejected and the import goes on with the next chunk.
+ */
+@RequiredArgsConstructor
+@Service
+public class ProductImportService {
+
+  static final int CHUNK_SIZE = 1000;
+  static final int MAX_REPORTED_ERRORS = 1000;
+
+  private final LocationRepository locationRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProductSearchIndex searchIndex;
+  private final ObjectMapper objectMapper;
+
+  @Value("${location-entity.mapping:JOINED}")
+  private LocationEntityMapping mapping;
+
+  /**
+   * A product of the import that is valid on its own, waiting for its location to be resolved
+   */
+  private record PendingProduct(long row, Product product, String location) {
+  }
+
+  /**
+   * Imports products from a JSON array of product objects
+   *
+   * @param body to read the products from
+   * @return a summary of the import
+   * @throws IOException if the body could not be read, or is not a JSON array. Chunks read
+   * before the error are kept
+   */
+  public ImportResult importJson(InputStream body) throws IOException {
+    var ingestion = new Ingestion();
+
+    try (var parser = this.objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new JsonParseException(parser, "Expected a JSON array of products");
+      }
+
+      long row = 0;
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == null) {
+          throw new JsonParseException(parser, "Unexpected end of the JSON array");
+        }
+
+        row++;
+        ingestion.add(row, parser.readValueAsTree());
+      }
+    }
+
+    return ingestion.finish();
+  }
+
+  /**
+   * Imports products from newline delimited JSON, with a product object on each line
+   *
+   * @param body to read the products from
+   * @return a summary of the import
+   * @throws IOException if the body could not be read
+   */
+  public ImportResult importNdjson(InputStream body) throws IOException {
+    var ingestion = new Ingestion();
+
+    try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      long row = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        row++;
+        if (line.isBlank()) {
+          continue;
+        }
+
+        try {
+          ingestion.add(row, this.objectMapper.readTree(line));
+        } catch (JsonProcessingException e) {
+          ingestion.reject(row, "Invalid JSON: " + e.getOriginalMessage());
+        }
+      }
+    }
+
+    return ingestion.finish();
+  }
+
+  /**
+   * The state of a single import
+   */
+  private class Ingestion {
+
+    private final long start = System.nanoTime();
+    private final List<PendingProduct> chunk = new ArrayList<>(CHUNK_SIZE);
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private int imported;
+    private int rejected;
+
+    void add(long row, JsonNode node) {
+      try {
+        var request = toRequest(node);
+        if (request.getName() == null) {
+          throw new IllegalArgumentException("Missing name");
+        }
+
+        var product = new Product(request.getName(), request.getWeight(), request.getVolume(),
+            request.getQuantity(), request.getType());
+        this.chunk.add(new PendingProduct(row, product, request.getLocation()));
+      } catch (IllegalArgumentException e) {
+        this.reject(row, e.getMessage());
+      }
+
+      if (this.chunk.size() == CHUNK_SIZE) {
+        this.save();
+      }
+    }
+
+    void reject(long row, String message) {
+      this.rejected++;
+      if (this.errors.size() < MAX_REPORTED_ERRORS) {
+        this.errors.add(new ImportRowError(row, message));
+      }
+    }
+
+    ImportResult finish() {
+      this.save();
+
+      var elapsedNanos = System.nanoTime() - this.start;
+      var rowsPerSecond = elapsedNanos == 0 ? 0 : (this.imported + this.rejected) * 1e9 / elapsedNanos;
+      return new ImportResult(this.imported, this.rejected, this.errors, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    /**
+     * Resolves the locations of the chunk with one query, and stores the products with a
+     * location that exists, or with no location, in one transaction. If the transaction fails,
+     * the products are rejected.
+     */
+    private void save() {
+      if (this.chunk.isEmpty()) {
+        return;
+      }
+
+      var codes = new HashSet<String>();
+      this.chunk.stream().map(PendingProduct::location).filter(Objects::nonNull).forEach(codes::add);
+      Map<String, Long> locationIds = new HashMap<>(codes.size() * 2);
+      if (!codes.isEmpty()) {
+        locationRepository.findCodeEntriesByCodes(codes).forEach(entry -> locationIds.put(entry.getCode(), entry.getId()));
+      }
+
+      var products = new ArrayList<PendingProduct>(this.chunk.size());
+      for (var pending : this.chunk) {
+        if (pending.location() != null && !locationIds.containsKey(pending.location())) {
+          this.reject(pending.row(), "Could not find location with code: " + pending.location());
+        } else {
+          products.add(pending);
+        }
+      }
+
+      try {
+        transactionTemplate.executeWithoutResult(status -> insert(products, locationIds));
+        this.imported += products.size();
+      } catch (DataAccessException | TransactionException e) {
+        var message = "The chunk of rows " + this.chunk.get(0).row() + " to "
+            + this.chunk.get(this.chunk.size() - 1).row() + " could not be stored";
+        products.forEach(pending -> this.reject(pending.row(), message));
+      }
+      this.chunk.clear();
+    }
+
+  }
+
+  /**
+   * Inserts the products and their {@code location_entity} rows in JDBC batches, or a single row
+   * each with the {@link LocationEntityMapping#SINGLE_TABLE} mapping. Hibernate does
+   * not batch inserts into more than one table, so the rows are written directly, with ids drawn
+   * from the same generator Hibernate uses.
+   */
+  private void insert(List<PendingProduct> products, Map<String, Long> locationIds) {
+    var session = this.entityManager.unwrap(SharedSessionContractImplementor.class);
+    var generator = session.getFactory().getMappingMetamodel().getEntityDescriptor(Product.class).getIdentifierGenerator();
+
+    var entities = new ArrayList<Object[]>(products.size());
+    var rows = new ArrayList<Object[]>(products.size());
+    for (var pending : products) {
+      var id = (Long) generator.generate(session, null);
+      var locationId = pending.location() == null ? null : locationIds.get(pending.location());
+      var product = pending.product();
+
+      entities.add(new Object[]{id, locationId});
+      rows.add(new Object[]{id, product.getName(), product.getQuantity(), ordinal(product.getStatus()),
+          ordinal(product.getType()), product.getVolume(), product.getWeight()});
+      this.searchIndex.add(id, product.getName());
+      if (locationId != null) {
+        // Rows written directly are not seen by the listener keeping the occupancy index
+        this.eventPublisher.publishEvent(new LocationEntityMovedEvent(Product.class, null, locationId));
+      }
+    }
+
+    if (this.mapping == LocationEntityMapping.SINGLE_TABLE) {
+      // Both rows are one row of location_entity, told apart from pluck lists by the discriminator
+      var merged = new ArrayList<Object[]>(rows.size());
+      for (var i = 0; i < rows.size(); i++) {
+        var row = rows.get(i);
+        merged.add(new Object[]{LocationEntityMapping.discriminatorOf(Product.class), row[0], entities.get(i)[1],
+            row[1], row[2], row[3], row[4], row[5], row[6]});
+      }
+      this.jdbcTemplate.batchUpdate("INSERT INTO location_entity (dtype, id, location_location_id, product_name, " +
+          "quantity, status, type, volume, weight) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", merged);
+      return;
+    }
+
+    this.jdbcTemplate.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+    this.jdbcTemplate.batchUpdate("INSERT INTO product (id, product_name, quantity, status, type, volume, weight) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+  }
+
+  private static Integer ordinal(Enum<?> value) {
+    return value == null ? null : value.ordinal();
+  }
+
+  private AddProductRequest toRequest(JsonNode node) {
+    if (node == null || !node.isObject()) {
+      throw new IllegalArgumentException("Expected a product object");
+    }
+
+    try {
+      return this.objectMapper.treeToValue(node, AddProductRequest.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid product: " + e.getOriginalMessage());
+    }
+  }
+
+}
@@ -0,0 +1,696 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import jakarta.annotation.PostConstruct;
+import no.ntnu.bachelor.voicepick.dtos.ProductMatch;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.utils.TransactionCallbacks;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Finds products by a name that is only partly or roughly right, like a name heard by speech
+ * recognition. Product names are indexed in memory in three ways:
+ *
+ * <ul>
+ *   <li>a prefix trie over the words of each name, so {@code "mel"} finds {@code "Melk"}</li>
+ *   <li>the trigrams of each word, so misspelled words are found by the trigrams they share</li>
+ *   <li>a phonetic key of each word, so words that sound alike, like {@code "Kaffe"} and
+ *   {@code "Caffe"}, are found by their key</li>
+ * </ul>
+ *
+ * <p>Names are compared without case, accents or punctuation. The index is built from the
+ * database at startup, and then kept up to date by {@link ProductService} and
+ * {@link ProductImportService} as products are added and deleted. Changes committed while the
+ * index is rebuilt, or made outside the application, are picked up when it is rebuilt every
+ * {@code product.search.rebuild-interval} milliseconds.
+ */
+@Service
+public class ProductSearchIndex {
+
+  /**
+   * The most names gathered from the index for a single search before they are ranked
+   */
+  static final int MAX_CANDIDATES = 2_000;
+  /**
+   * The most trigram postings read for a single search
+   */
+  static final int MAX_SCANNED = 20_000;
+  /**
+   * The most names matched by trigrams alone that are ranked for a single search
+   */
+  static final int MAX_TRIGRAM_CANDIDATES = 500;
+  static final double MIN_SCORE = 0.3;
+  /**
+   * The highest score of a name matched by its trigrams alone, and the lowest of a name
+   * matched by how its words sound
+   */
+  private static final double TRIGRAM_WEIGHT = 0.6;
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+  /**
+   * The number of trigrams each name shares with the query, kept between searches so it is
+   * not allocated for every search. Every count is reset to zero after use.
+   */
+  private static final ThreadLocal<int[]> SHARED_TRIGRAMS = ThreadLocal.withInitial(() -> new int[0]);
+
+  private final ProductRepository productRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Index index = new Index();
+
+  public ProductSearchIndex(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+    this.productRepository = productRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @PostConstruct
+  void init() {
+    this.rebuild();
+  }
+
+  /**
+   * Rebuilds the index from the products stored in the database. Searches are answered from the
+   * old index until the new one is complete.
+   */
+  @Scheduled(initialDelayString = "${product.search.rebuild-interval:300000}",
+      fixedDelayString = "${product.search.rebuild-interval:300000}")
+  public void rebuild() {
+    var rebuilt = new Index();
+    this.transactionTemplate.executeWithoutResult(status -> {
+      try (var names = this.productRepository.streamNames()) {
+        names.forEach(product -> rebuilt.add(product.getId(), product.getName()));
+      }
+    });
+
+    this.lock.writeLock().lock();
+    try {
+      this.index = rebuilt;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a product to the index. If called in a transaction, the product is added once the
+   * transaction commits.
+   *
+   * @param id of the product
+   * @param name of the product
+   */
+  public void add(Long id, String name) {
+    TransactionCallbacks.afterCommit(() -> this.write(index -> index.add(id, name)));
+  }
+
+  /**
+   * Removes products from the index. If called in a transaction, the products are removed once
+   * the transaction commits.
+   *
+   * @param name of the products
+   * @param ids of the products to remove
+   */
+  public void remove(String name, Collection<Long> ids) {
+    var removed = Set.copyOf(ids);
+    TransactionCallbacks.afterCommit(() -> this.write(index -> index.remove(name, removed)));
+  }
+
+  /**
+   * Finds the product names that best match the query, best match first. A name matches if it
+   * is the query, if its words start with the words of the query, if its words sound like them,
+   * or if it shares enough trigrams with the query.
+   *
+   * @param query the name, or the start of the name, to search for
+   * @param limit the maximum number of names to return
+   * @return a list of the names found, with the products of each name
+   */
+  public List<ProductMatch> search(String query, int limit) {
+    var words = words(query);
+    if (words.length == 0 || limit <= 0) {
+      return List.of();
+    }
+
+    this.lock.readLock().lock();
+    try {
+      return this.index.search(words, limit);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of distinct product names in the index
+   *
+   * @return the number of names
+   */
+  public int size() {
+    this.lock.readLock().lock();
+    try {
+      return this.index.ordinals.size();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  private void write(Consumer<Index> change) {
+    this.lock.writeLock().lock();
+    try {
+      change.accept(this.index);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Splits a name into its words, in lower case and without accents
+   */
+  static String[] words(String name) {
+    if (name == null) {
+      return new String[0];
+    }
+
+    var plain = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+    var normalized = SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+  }
+
+  /**
+   * Returns a key for how a word sounds. Consonants that sound alike share a letter, vowels only
+   * separate consonants, and repeated letters are collapsed, so {@code "kaffe"} and
+   * {@code "caffe"} both become {@code "KB"}. Digits in the word are kept as they are.
+   */
+  static String phoneticKey(String word) {
+    var key = new StringBuilder(word.length());
+    var previous = '\0';
+    for (var i = 0; i < word.length(); i++) {
+      var letter = word.charAt(i);
+      var code = switch (letter) {
+        case 'b', 'f', 'p', 'v', 'w' -> 'B';
+        case 'c', 'g', 'j', 'k', 'q', 's', 'x', 'z' -> 'K';
+        case 'd', 't' -> 'T';
+        case 'l' -> 'L';
+        case 'm', 'n' -> 'N';
+        case 'r' -> 'R';
+        case 'h' -> previous;
+        default -> Character.isDigit(letter) ? letter : '\0';
+      };
+      if (code != previous && code != '\0') {
+        key.append(code);
+      }
+      previous = code;
+    }
+    return key.isEmpty() ? word : key.toString();
+  }
+
+  /**
+   * Returns the trigrams of a word, padded at both ends so the start and end of the word
+   * count, each packed into a long
+   */
+  static long[] trigrams(String word) {
+    var padded = " " + word + " ";
+    var trigrams = new long[Math.max(0, padded.length() - 2)];
+    for (var i = 0; i < trigrams.length; i++) {
+      trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+    }
+    return trigrams;
+  }
+
+  /**
+   * A growable list of ints, removed from by swapping with the last element
+   */
+  private static final class IntList {
+
+    private int[] values = new int[2];
+    private int size;
+
+    void add(int value) {
+      if (this.size == this.values.length) {
+        this.values = Arrays.copyOf(this.values, this.size * 2);
+      }
+      this.values[this.size++] = value;
+    }
+
+    void remove(int value) {
+      for (var i = 0; i < this.size; i++) {
+        if (this.values[i] == value) {
+          this.values[i] = this.values[--this.size];
+          return;
+        }
+      }
+    }
+
+  }
+
+  /**
+   * A node of the prefix trie, holding the names with a word that ends at the node, and the
+   * number of words that end at or below it
+   */
+  private static final class TrieNode {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+    private char[] keys = NO_KEYS;
+    private TrieNode[] children = NO_CHILDREN;
+    private IntList ordinals;
+    private int count;
+
+    TrieNode child(char key) {
+      var position = Arrays.binarySearch(this.keys, key);
+      return position < 0 ? null : this.children[position];
+    }
+
+    TrieNode childOrAdd(char key) {
+      var position = Arrays.binarySearch(this.keys, key);
+      if (position >= 0) {
+        return this.children[position];
+      }
+
+      var insertAt = -position - 1;
+      var keys = new char[this.keys.length + 1];
+      var children = new TrieNode[keys.length];
+      System.arraycopy(this.keys, 0, keys, 0, insertAt);
+      System.arraycopy(this.children, 0, children, 0, insertAt);
+      System.arraycopy(this.keys, insertAt, keys, insertAt + 1, this.keys.length - insertAt);
+      System.arraycopy(this.children, insertAt, children, insertAt + 1, this.children.length - insertAt);
+      keys[insertAt] = key;
+      children[insertAt] = new TrieNode();
+      this.keys = keys;
+      this.children = children;
+      return children[insertAt];
+    }
+
+    /**
+     * Adds the names of this node and the nodes below it, shortest words first, until
+     * {@code max} names are found
+     */
+    void collect(Set<Integer> found, int max) {
+      var pending = new ArrayDeque<TrieNode>();
+      pending.add(this);
+      while (!pending.isEmpty() && found.size() < max) {
+        var node = pending.poll();
+        if (node.ordinals != null) {
+          for (var i = 0; i < node.ordinals.size && found.size() < max; i++) {
+            found.add(node.ordinals.values[i]);
+          }
+        }
+        for (var child : node.children) {
+          if (child.count > 0) {
+            pending.add(child);
+          }
+        }
+      }
+    }
+
+  }
+
+  /**
+   * An indexed product name, with its words in the forms they are compared in, and the products
+   * with that name
+   */
+  private static final class IndexedName {
+
+    private final String name;
+    private final String normalized;
+    private final String[] words;
+    private final String[] keys;
+    private final long[] trigrams;
+    private long[] ids = new long[1];
+    private int size;
+
+    IndexedName(String name, String[] words) {
+      this.name = name;
+      this.normalized = String.join(" ", words);
+      this.words = words;
+      this.keys = Arrays.stream(words).map(ProductSearchIndex::phoneticKey).toArray(String[]::new);
+      this.trigrams = trigramSet(words);
+    }
+
+  }
+
+  /**
+   * A name and how well it matches a query
+   */
+  private record Scored(IndexedName name, double score) {
+  }
+
+  /**
+   * Orders the best matches first, and shorter names first among equal matches
+   */
+  private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score).reversed()
+      .thenComparingInt(scored -> scored.name().name.length())
+      .thenComparing(scored -> scored.name().name);
+
+  /**
+   * Returns the distinct trigrams of the words, sorted
+   */
+  private static long[] trigramSet(String[] words) {
+    return Arrays.stream(words).flatMapToLong(word -> Arrays.stream(trigrams(word))).sorted().distinct().toArray();
+  }
+
+  /**
+   * The content of the index. Guarded by the lock of the enclosing search index once published.
+   */
+  private static final class Index {
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<IndexedName> names = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final TrieNode trie = new TrieNode();
+    private final Map<Long, IntList> trigramPostings = new HashMap<>();
+    private final Map<String, IntList> phoneticPostings = new HashMap<>();
+
+    void add(Long id, String name) {
+      if (id == null || name == null) {
+        return;
+      }
+
+      var ordinal = this.ordinals.get(name);
+      IndexedName indexed;
+      if (ordinal == null) {
+        var words = words(name);
+        if (words.length == 0) {
+          return;
+        }
+
+        indexed = new IndexedName(name, words);
+        ordinal = this.freeOrdinals.isEmpty() ? this.names.size() : this.freeOrdinals.pop();
+        if (ordinal == this.names.size()) {
+          this.names.add(indexed);
+        } else {
+          this.names.set(ordinal, indexed);
+        }
+        this.ordinals.put(name, ordinal);
+        this.post(ordinal, indexed, true);
+      } else {
+        indexed = this.names.get(ordinal);
+      }
+
+      for (var i = 0; i < indexed.size; i++) {
+        if (indexed.ids[i] == id) {
+          return;
+        }
+      }
+      if (indexed.size == indexed.ids.length) {
+        indexed.ids = Arrays.copyOf(indexed.ids, indexed.size * 2);
+      }
+      indexed.ids[indexed.size++] = id;
+    }
+
+    void remove(String name, Set<Long> ids) {
+      var ordinal = this.ordinals.get(name);
+      if (ordinal == null) {
+        return;
+      }
+
+      var indexed = this.names.get(ordinal);
+      var kept = 0;
+      for (var i = 0; i < indexed.size; i++) {
+        if (!ids.contains(indexed.ids[i])) {
+          indexed.ids[kept++] = indexed.ids[i];
+        }
+      }
+      indexed.size = kept;
+
+      if (kept == 0) {
+        this.post(ordinal, indexed, false);
+        this.ordinals.remove(name);
+        this.names.set(ordinal, null);
+        this.freeOrdinals.push(ordinal);
+      }
+    }
+
+    /**
+     * Adds or removes a name from the trie and the postings of its words
+     */
+    private void post(int ordinal, IndexedName indexed, boolean add) {
+      var delta = add ? 1 : -1;
+      Arrays.stream(indexed.words).distinct().forEach(word -> {
+        var node = this.trie;
+        node.count += delta;
+        for (var i = 0; i < word.length(); i++) {
+          node = add ? node.childOrAdd(word.charAt(i)) : node.child(word.charAt(i));
+          node.count += delta;
+        }
+        if (add) {
+          if (node.ordinals == null) {
+            node.ordinals = new IntList();
+          }
+          node.ordinals.add(ordinal);
+        } else {
+          node.ordinals.remove(ordinal);
+        }
+      });
+
+      Arrays.stream(indexed.keys).distinct().forEach(key -> change(this.phoneticPostings, key, ordinal, add));
+      for (var trigram : indexed.trigrams) {
+        change(this.trigramPostings, trigram, ordinal, add);
+      }
+    }
+
+    private static <K> void change(Map<K, IntList> postings, K key, int ordinal, boolean add) {
+      if (add) {
+        postings.computeIfAbsent(key, k -> new IntList()).add(ordinal);
+        return;
+      }
+
+      var posting = postings.get(key);
+      if (posting != null) {
+        posting.remove(ordinal);
+        if (posting.size == 0) {
+          postings.remove(key);
+        }
+      }
+    }
+
+    List<ProductMatch> search(String[] words, int limit) {
+      var query = new IndexedName(null, words);
+      var candidates = new HashSet<Integer>();
+      this.gatherByPrefix(query, candidates);
+      this.gatherBySound(query, candidates);
+
+      var best = new PriorityQueue<Scored>(limit + 1, RANKING.reversed());
+      var matchedByWords = this.rank(query, candidates, best, limit);
+
+      // Names matched by trigrams alone never score above names matched by their words or sound
+      if (matchedByWords < limit) {
+        var byTrigrams = new HashSet<Integer>();
+        this.gatherByTrigrams(query, byTrigrams);
+        byTrigrams.removeAll(candidates);
+        this.rank(query, byTrigrams, best, limit);
+      }
+
+      var ranked = new ArrayList<>(best);
+      ranked.sort(RANKING);
+      var matches = new ArrayList<ProductMatch>(ranked.size());
+      for (var scored : ranked) {
+        var indexed = scored.name();
+        var ids = new ArrayList<Long>(indexed.size);
+        for (var i = 0; i < indexed.size; i++) {
+          ids.add(indexed.ids[i]);
+        }
+        matches.add(new ProductMatch(indexed.name, scored.score(), ids));
+      }
+      return matches;
+    }
+
+    /**
+     * Scores the candidates, keeping the {@code limit} best in the queue, worst first
+     *
+     * @return the number of candidates matched by their words or how they sound
+     */
+    private int rank(IndexedName query, Set<Integer> candidates, PriorityQueue<Scored> best, int limit) {
+      var matchedByWords = 0;
+      for (var ordinal : candidates) {
+        var indexed = this.names.get(ordinal);
+        var score = score(query, indexed);
+        if (score < MIN_SCORE) {
+          continue;
+        }
+        if (score >= TRIGRAM_WEIGHT) {
+          matchedByWords++;
+        }
+
+        var scored = new Scored(indexed, score);
+        if (best.size() < limit) {
+          best.add(scored);
+        } else if (RANKING.compare(scored, best.peek()) < 0) {
+          best.poll();
+          best.add(scored);
+        }
+      }
+      return matchedByWords;
+    }
+
+    /**
+     * Gathers the names with words starting with every query word, from the trie node of the
+     * query word that starts the fewest words
+     */
+    private void gatherByPrefix(IndexedName query, Set<Integer> candidates) {
+      TrieNode rarest = null;
+      for (var word : query.words) {
+        var node = this.trie;
+        for (var i = 0; i < word.length() && node != null; i++) {
+          node = node.child(word.charAt(i));
+        }
+        if (node == null || node.count == 0) {
+          return;
+        }
+        if (rarest == null || node.count < rarest.count) {
+          rarest = node;
+        }
+      }
+      rarest.collect(candidates, MAX_CANDIDATES);
+    }
+
+    /**
+     * Gathers the names with a word sounding like the query word that sounds like the fewest
+     */
+    private void gatherBySound(IndexedName query, Set<Integer> candidates) {
+      IntList rarest = null;
+      for (var key : query.keys) {
+        var posting = this.phoneticPostings.get(key);
+        if (posting == null) {
+          return;
+        }
+        if (rarest == null || posting.size < rarest.size) {
+          rarest = posting;
+        }
+      }
+      addAll(candidates, rarest);
+    }
+
+    /**
+     * Gathers up to {@value #MAX_TRIGRAM_CANDIDATES} of the names sharing the most query trigrams,
+     * and at least half of those looked up. The rarest trigrams are looked up first, until
+     * {@value #MAX_SCANNED} postings have been read.
+     */
+    private void gatherByTrigrams(IndexedName query, Set<Integer> candidates) {
+      var postings = new ArrayList<IntList>(query.trigrams.length);
+      for (var trigram : query.trigrams) {
+        var posting = this.trigramPostings.get(trigram);
+        if (posting != null) {
+          postings.add(posting);
+        }
+      }
+      postings.sort(Comparator.comparingInt(posting -> posting.size));
+
+      var shared = SHARED_TRIGRAMS.get();
+      if (shared.length < this.names.size()) {
+        shared = new int[this.names.size()];
+        SHARED_TRIGRAMS.set(shared);
+      }
+      var touched = new IntList();
+      var scanned = 0;
+      var used = 0;
+      for (var posting : postings) {
+        if (used > 0 && scanned + posting.size > MAX_SCANNED) {
+          break;
+        }
+        for (var i = 0; i < posting.size; i++) {
+          if (shared[posting.values[i]]++ == 0) {
+            touched.add(posting.values[i]);
+          }
+        }
+        scanned += posting.size;
+        used++;
+      }
+
+      // Only the names sharing the most trigrams are scored
+      var histogram = new int[used + 1];
+      for (var i = 0; i < touched.size; i++) {
+        histogram[shared[touched.values[i]]]++;
+      }
+      var threshold = used;
+      for (var gathered = histogram[used]; threshold > Math.max(1, (used + 1) / 2) && gathered < MAX_TRIGRAM_CANDIDATES; ) {
+        gathered += histogram[--threshold];
+      }
+
+      for (var i = 0; i < touched.size; i++) {
+        if (shared[touched.values[i]] >= threshold && candidates.size() < MAX_TRIGRAM_CANDIDATES) {
+          candidates.add(touched.values[i]);
+        }
+        shared[touched.values[i]] = 0;
+      }
+    }
+
+    private static void addAll(Set<Integer> candidates, IntList posting) {
+      if (posting == null) {
+        return;
+      }
+      for (var i = 0; i < posting.size && candidates.size() < MAX_CANDIDATES; i++) {
+        candidates.add(posting.values[i]);
+      }
+    }
+
+    /**
+     * Scores how well a name matches the query, from {@code 0} to {@code 1}. The name being the
+     * query scores the most, then every query word starting a word of the name, then every query
+     * word sounding like a word of the name, and last the trigrams shared with the query. Names
+     * that are not much longer than the query score higher within each kind of match.
+     */
+    private static double score(IndexedName query, IndexedName indexed) {
+      if (indexed.normalized.equals(query.normalized)) {
+        return 1;
+      }
+
+      var coverage = (double) query.normalized.length() / Math.max(query.normalized.length(), indexed.normalized.length());
+      if (everyWordMatches(query.words, indexed.words, true)) {
+        return 0.8 + 0.15 * coverage;
+      }
+      if (everyWordMatches(query.keys, indexed.keys, false)) {
+        return TRIGRAM_WEIGHT + 0.15 * coverage;
+      }
+
+      var shared = 0;
+      for (int i = 0, j = 0; i < query.trigrams.length && j < indexed.trigrams.length; ) {
+        if (query.trigrams[i] == indexed.trigrams[j]) {
+          shared++;
+          i++;
+          j++;
+        } else if (query.trigrams[i] < indexed.trigrams[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      return TRIGRAM_WEIGHT * 2.0 * shared / (query.trigrams.length + indexed.trigrams.length);
+    }
+
+    private static boolean everyWordMatches(String[] queryWords, String[] words, boolean prefix) {
+      for (var queryWord : queryWords) {
+        var found = false;
+        for (var i = 0; i < words.length && !found; i++) {
+          found = prefix ? words[i].startsWith(queryWord) : words[i].equals(queryWord);
+        }
+        if (!found) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
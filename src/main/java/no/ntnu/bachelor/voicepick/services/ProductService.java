@@ -1,12 +1,26 @@
 package no.ntnu.bachelor.voicepick.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.dtos.ProductMatch;
+import no.ntnu.bachelor.voicepick.dtos.ProductPage;
+import no.ntnu.bachelor.voicepick.events.LocationEntityMovedEvent;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler;
 import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.Status;
 import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
 
 /**
@@ -16,10 +30,19 @@ import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
 @RequiredArgsConstructor
 public class ProductService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+  private static final int DELETE_CHUNK_SIZE = 1000;
+
   private final ProductRepository repository;
 
   private final LocationService locationService;
 
+  private final ProductSearchIndex searchIndex;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final EntityManager entityManager;
+
   /**
    * Adds a product to the repository
    * 
@@ -31,23 +54,72 @@ public class ProductService {
         product.getWeight(),
         product.getVolume(),
         product.getQuantity(),
-        product.getType(),
-        product.getStatus());
+        product.getType());
 
-    var optionalLocation = this.locationService.getLocationByCode(product.getLocation());
-    optionalLocation.ifPresent(location -> location.addEntity(productToSave));
+    // Only the id of the location is needed to store the product at it
+    var optionalLocation = this.locationService.getLocationReferenceByCode(product.getLocation());
+    optionalLocation.ifPresent(productToSave::setLocation);
 
-    this.repository.save(productToSave);
+    var saved = this.repository.save(productToSave);
+    this.searchIndex.add(saved.getId(), saved.getName());
   }
 
   /**
    * Returns a list of products that are available. By available
-   * we mean a product that has a location so it can be plucked.
+   * we mean a product that has a location and is in stock, so it can be plucked.
    * 
    * @return a list of products
    */
   public List<Product> getAvailableProducts() {
-    return this.repository.findByLocationIsNotNull();
+    return this.repository.findByLocationIsNotNullAndStatus(Status.READY);
+  }
+
+  /**
+   * Returns up to {@code max} random products that are available. The products are picked by
+   * probing random ids, see {@link KeyRangeSampler}, so the work done does not grow with the
+   * number of products, and the rest of the available products are never loaded.
+   *
+   * @param max the maximum number of products to return
+   * @param random the generator to draw from
+   * @return a list of random available products, ordered by id
+   */
+  public List<Product> getRandomAvailableProducts(int max, RandomGenerator random) {
+    var range = this.repository.findIdRange();
+    if (range.isEmpty()) {
+      return List.of();
+    }
+
+    var ids = KeyRangeSampler.sample(range.get(), max, random, this.repository::findAvailableIdsAtOrAfter,
+        limit -> this.repository.findAvailableIds(PageRequest.of(0, limit)));
+
+    var products = new ArrayList<>(this.repository.findAllById(ids));
+    products.sort(Comparator.comparing(Product::getId));
+    return products;
+  }
+
+  /**
+   * Returns the number of products that are available
+   *
+   * @return the number of available products
+   */
+  public long countAvailableProducts() {
+    return this.repository.countByLocationIsNotNullAndStatus(Status.READY);
+  }
+
+  /**
+   * Returns the available products at the given positions, when all available products
+   * are ordered by id. The same positions give the same products as long as the stored
+   * products do not change.
+   *
+   * @param positions the 1-based positions of the products to return
+   * @return a list of the products found, ordered by id
+   */
+  public List<Product> getAvailableProductsAt(Collection<Long> positions) {
+    var ids = this.repository.findAvailableIdsAtPositions(positions);
+
+    var products = new ArrayList<>(this.repository.findAllById(ids));
+    products.sort(Comparator.comparing(Product::getId));
+    return products;
   }
 
   /**
@@ -59,6 +131,46 @@ public class ProductService {
     return this.repository.findAll();
   }
 
+  /**
+   * Returns a page of the products, ordered by id
+   *
+   * @param cursor the id of the last product on the previous page, or {@code null} for the first page
+   * @param limit the maximum number of products on the page, at most {@value #MAX_PAGE_SIZE}
+   * @param available {@code true} to only return products that are available
+   * @return a page of products
+   * @throws IllegalArgumentException if the limit is out of bounds
+   */
+  public ProductPage getProducts(Long cursor, int limit, boolean available) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    var products = this.repository.findAfter(cursor == null ? Long.MIN_VALUE : cursor, available, PageRequest.of(0, limit));
+    var nextCursor = products.size() < limit ? null : products.get(products.size() - 1).getId();
+    return new ProductPage(products, nextCursor);
+  }
+
+  /**
+   * Passes every product to an action, ordered by id. The products are read from the database
+   * a thousand at a time, and are dropped from the persistence context once handled, so the
+   * memory used does not grow with the number of products.
+   *
+   * @param available {@code true} to only pass products that are available
+   * @param action to perform on each product
+   */
+  @Transactional(readOnly = true)
+  public void forEachProduct(boolean available, Consumer<Product> action) {
+    try (var products = this.repository.streamAll(available)) {
+      var handled = 0;
+      for (var iterator = products.iterator(); iterator.hasNext(); ) {
+        action.accept(iterator.next());
+        if (++handled % ProductRepository.STREAM_FETCH_SIZE == 0) {
+          this.entityManager.clear();
+        }
+      }
+    }
+  }
+
   /**
    * Returns all products with the same name as the one given
    * 
@@ -70,16 +182,42 @@ public class ProductService {
   }
 
   /**
-   * Deletes all products with the given name
+   * Returns the product names that best match the query, best match first. Names that are only
+   * partly or roughly right are found as well, like names heard by speech recognition.
+   *
+   * @param query the name, or the start of the name, to search for
+   * @param limit the maximum number of names to return
+   * @return a list of the names found, with the products of each name
+   */
+  public List<ProductMatch> searchProducts(String query, int limit) {
+    return this.searchIndex.search(query, limit);
+  }
+
+  /**
+   * Deletes all products with the given name. The products are deleted with one statement per
+   * table for every {@value #DELETE_CHUNK_SIZE} products, without being loaded, in one transaction.
+   * Entities loaded in the current persistence context are cleared, so no location is seen
+   * holding a deleted product.
    *
    * @param name of the product to be deleted
    */
+  @Transactional
   public void deleteAll(String name) {
-    var productsFound = this.getProductsByName(name);
+    var productsFound = this.repository.findLocationsByName(name);
+
+    var ids = productsFound.stream().map(ProductRepository.ProductLocation::getId).toList();
+    for (var from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+      var chunk = ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK_SIZE));
+      this.repository.deleteRows(chunk);
+    }
 
-    productsFound.forEach(Product::removeLocation);
+    this.searchIndex.remove(name, ids);
 
-    this.repository.deleteAll(productsFound);
+    // Bulk deletes are not seen by the listener keeping the occupancy index
+    productsFound.stream()
+        .filter(product -> product.getLocationId() != null)
+        .forEach(product -> this.eventPublisher.publishEvent(
+            new LocationEntityMovedEvent(Product.class, product.getLocationId(), null)));
   }
 
 }
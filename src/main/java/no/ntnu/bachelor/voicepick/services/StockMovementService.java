@@ -0,0 +1,241 @@
+package no.ntnu.bachelor.voicepick.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.events.ProductEmptiedEvent;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.Status;
+import no.ntnu.bachelor.voicepick.models.StockMovement;
+import no.ntnu.bachelor.voicepick.models.StockMovementType;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.repositories.StockMovementRepository;
+import no.ntnu.bachelor.voicepick.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records picks, receipts and adjustments of the stock of products, without making the
+ * pickers of a popular product wait for each other on the row of the product.
+ *
+ * <p>Each movement is appended to the {@code stock_movement} ledger, which only ever takes
+ * inserts, and is left unapplied. Once committed, it is counted in an in-memory counter for its
+ * product, a {@link LongAdder} that spreads concurrent additions over several cells. Products
+ * are split into stripes by id, and every {@code product.stock.flush-interval} milliseconds the
+ * stripes with counted movements are flushed. A flush locks the products, adds their unapplied
+ * movements to {@code product.quantity} in a single update for each product, no matter how many
+ * movements it had, and marks the movements applied in the same transaction.
+ *
+ * <p>The current quantity is the quantity stored on the product plus its unapplied movements,
+ * read from the database in one statement, so it is the same on every instance of the
+ * application and never counts a movement twice or misses it. The counters only decide which
+ * products to flush. Any instance may apply any movement, so movements left by an instance that
+ * stopped are applied by the next one to start, or by the next reservation of the product.
+ *
+ * <p>Picks and adjustments that take more than the current quantity are rejected. Movements
+ * recorded at the same time do not see each other, so picks racing for the last units of a
+ * product can still take it below zero. Stock that must not be oversold is reserved with
+ * {@link no.ntnu.bachelor.voicepick.features.pluck.services.StockReservationService}, which
+ * locks the product.
+ */
+@Service
+public class StockMovementService {
+
+  static final int STRIPES = 64;
+  private static final int FLUSH_BATCH_SIZE = 1000;
+
+  private final StockMovementRepository movementRepository;
+  private final ProductRepository productRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final String updateQuantity;
+
+  private final Map<Long, LongAdder> counted = new ConcurrentHashMap<>();
+  private final AtomicIntegerArray dirty = new AtomicIntegerArray(STRIPES);
+
+  public StockMovementService(StockMovementRepository movementRepository, ProductRepository productRepository,
+                              JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${location-entity.mapping:JOINED}") LocationEntityMapping mapping) {
+    this.movementRepository = movementRepository;
+    this.productRepository = productRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    // Both columns are set from the quantity before the update
+    this.updateQuantity = "UPDATE " + mapping.tableOf(Product.class) +
+        " SET quantity = quantity + ?, status = CASE WHEN quantity + ? > 0 THEN " + Status.READY.ordinal() +
+        " ELSE " + Status.EMPTY.ordinal() + " END WHERE id = ?" +
+        (mapping == LocationEntityMapping.SINGLE_TABLE
+            ? " AND dtype = '" + LocationEntityMapping.discriminatorOf(Product.class) + "'"
+            : "");
+  }
+
+  @PostConstruct
+  void init() {
+    for (var productId : this.movementRepository.findProductIdsWithUnapplied()) {
+      this.count(productId);
+    }
+  }
+
+  /**
+   * Records a movement of the stock of a product. The movement counts towards the quantity of
+   * the product once the transaction it is recorded in commits.
+   *
+   * @param productId of the product
+   * @param type of the movement
+   * @param amount taken or received for picks and receipts, which must be positive. The signed
+   *               change to the quantity for adjustments, which must not be zero
+   * @return the recorded movement
+   * @throws IllegalArgumentException if the amount is not valid for the type of movement, or
+   * takes more than the current quantity of the product
+   * @throws EntityNotFoundException if there is no product with the id
+   */
+  @Transactional
+  public StockMovement record(Long productId, StockMovementType type, int amount) {
+    if (type == null) throw new IllegalArgumentException("Type of movement is required");
+    if (type == StockMovementType.ADJUSTMENT ? amount == 0 : amount <= 0) {
+      throw new IllegalArgumentException("Invalid amount for " + type + ": " + amount);
+    }
+
+    var quantity = this.getQuantity(productId);
+    var change = type == StockMovementType.PICK ? -amount : amount;
+    if (change < 0 && quantity + change < 0) {
+      throw new IllegalArgumentException("Cannot take " + -change + " of product " + productId +
+          ", there are " + quantity + " left");
+    }
+
+    var movement = this.movementRepository.save(new StockMovement(productId, type, change));
+
+    TransactionCallbacks.afterCommit(() -> this.count(productId));
+    // The status is updated by the flush, but the event is published as soon as it is known
+    if (quantity > 0 && quantity + change <= 0) {
+      var event = new ProductEmptiedEvent(productId);
+      TransactionCallbacks.afterCommit(() -> this.eventPublisher.publishEvent(event));
+    }
+
+    return movement;
+  }
+
+  /**
+   * Returns the current quantity of a product, including the movements not yet applied
+   *
+   * @param productId of the product
+   * @return the quantity of the product
+   * @throws EntityNotFoundException if there is no product with the id
+   */
+  public int getQuantity(Long productId) {
+    if (productId == null) throw new EntityNotFoundException("Could not find product with id: null");
+
+    return Math.toIntExact(this.productRepository.findQuantityById(productId)
+        .orElseThrow(() -> new EntityNotFoundException("Could not find product with id: " + productId)));
+  }
+
+  /**
+   * Applies the movements not yet applied to the quantity stored on the given products. The
+   * products must be locked by the transaction, so no one else applies them at the same time.
+   *
+   * @param productIds of the products
+   * @return the change made to the quantity of each product changed
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Map<Long, Integer> applyPending(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return Map.of();
+    }
+
+    var movements = this.movementRepository.lockUnapplied(productIds);
+    if (movements.isEmpty()) {
+      return Map.of();
+    }
+
+    var changes = new HashMap<Long, Integer>();
+    var ids = new ArrayList<Long>(movements.size());
+    for (var movement : movements) {
+      changes.merge(movement.getProductId(), movement.getAmount(), Math::addExact);
+      ids.add(movement.getId());
+    }
+
+    var rows = new ArrayList<Object[]>(changes.size());
+    changes.forEach((productId, change) -> rows.add(new Object[]{change, change, productId}));
+    this.jdbcTemplate.batchUpdate(this.updateQuantity, rows);
+    for (var from = 0; from < ids.size(); from += FLUSH_BATCH_SIZE) {
+      this.movementRepository.markApplied(ids.subList(from, Math.min(from + FLUSH_BATCH_SIZE, ids.size())));
+    }
+
+    return changes;
+  }
+
+  /**
+   * Applies the recorded movements to the quantity stored on their products. Only the stripes
+   * with movements counted since they were last flushed are visited.
+   */
+  @Scheduled(initialDelayString = "${product.stock.flush-interval:1000}",
+      fixedDelayString = "${product.stock.flush-interval:1000}")
+  public void flush() {
+    for (var stripe = 0; stripe < STRIPES; stripe++) {
+      if (this.dirty.getAndSet(stripe, 0) == 0) {
+        continue;
+      }
+
+      try {
+        this.flush(stripe);
+      } catch (RuntimeException e) {
+        this.dirty.set(stripe, 1);
+        throw e;
+      }
+    }
+  }
+
+  private void flush(int stripe) {
+    var flushed = new HashMap<Long, Long>();
+    this.counted.forEach((productId, counter) -> {
+      var count = counter.sum();
+      if (count != 0 && stripe(productId) == stripe) {
+        flushed.put(productId, count);
+      }
+    });
+
+    var productIds = new ArrayList<>(flushed.keySet());
+    productIds.sort(null);
+    for (var from = 0; from < productIds.size(); from += FLUSH_BATCH_SIZE) {
+      List<Long> batch = productIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, productIds.size()));
+      this.transactionTemplate.executeWithoutResult(status -> {
+        // Deleted products are not locked, but their movements are marked applied all the same
+        this.productRepository.lockAll(batch);
+        this.applyPending(batch);
+      });
+
+      // Movements counted since are flushed the next time
+      for (var productId : batch) {
+        this.counted.get(productId).add(-flushed.get(productId));
+      }
+    }
+  }
+
+  private void count(Long productId) {
+    this.counted.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    this.dirty.set(stripe(productId), 1);
+  }
+
+  private static int stripe(Long productId) {
+    return (int) Math.floorMod(productId, (long) STRIPES);
+  }
+
+}
@@ -0,0 +1,35 @@
+package no.ntnu.bachelor.voicepick.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work that keeps in-memory state in step with the database until the transaction that
+ * changed the database has committed, so a rollback never leaves the state ahead of the rows.
+ */
+public final class TransactionCallbacks {
+
+  private TransactionCallbacks() {
+  }
+
+  /**
+   * Runs an action once the current transaction commits, or right away if there is no
+   * transaction. The action is dropped if the transaction rolls back.
+   *
+   * @param action to run
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+}
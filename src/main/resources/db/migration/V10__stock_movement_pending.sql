@@ -0,0 +1,4 @@
+-- Movements are applied to product.quantity in the background again, so the ones not yet
+-- applied are looked up by product. Every movement recorded before this was applied with it.
+alter table stock_movement add column applied boolean default true not null;
+create index if not exists stock_movement_unapplied_idx on stock_movement (applied, product_id);
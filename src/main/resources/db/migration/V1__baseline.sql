@@ -0,0 +1,137 @@
+-- Schema as created by Hibernate before migrations were introduced. Existing databases
+-- are baselined at this version, so this script only runs against an empty schema.
+
+create sequence cargo_carrier_seq start with 1 increment by 50;
+create sequence location_entity_seq start with 1 increment by 50;
+create sequence location_seq start with 1 increment by 50;
+create sequence pluck_seq start with 1 increment by 50;
+create sequence plucklist_location_seq start with 1 increment by 50;
+
+create table cargo_carrier (
+    cargo_carrier_id bigint not null,
+    identifier bigint,
+    name varchar(255),
+    phonetic_identifier varchar(255),
+    primary key (cargo_carrier_id)
+);
+
+create table location (
+    location_id bigint not null,
+    code varchar(255),
+    control_digits integer,
+    primary key (location_id)
+);
+
+create table location_entity (
+    id bigint not null,
+    location_location_id bigint,
+    primary key (id)
+);
+
+create table pluck (
+    pluck_id bigint not null,
+    amount integer,
+    confirmed_at timestamp(6),
+    created_at timestamp(6),
+    plucked_at timestamp(6),
+    pluck_list_id bigint,
+    product_id bigint,
+    primary key (pluck_id)
+);
+
+create table pluck_list (
+    confirmed_at timestamp(6),
+    destination varchar(255),
+    finished_at timestamp(6),
+    route varchar(255),
+    id bigint not null,
+    cargo_carrier_id bigint,
+    user_id varchar(255),
+    primary key (id)
+);
+
+create table plucklist_location (
+    plucklist_location_id bigint not null,
+    control_digit integer,
+    name varchar(255),
+    pluck_list_id bigint,
+    primary key (plucklist_location_id)
+);
+
+create table product (
+    product_name varchar(255),
+    quantity integer,
+    status smallint,
+    type smallint,
+    volume float(53),
+    weight float(53),
+    id bigint not null,
+    primary key (id)
+);
+
+create table users (
+    id varchar(255) not null,
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    primary key (id)
+);
+
+create table users_plucklists (
+    users_id varchar(255) not null,
+    plucklists_id bigint not null,
+    primary key (users_id, plucklists_id)
+);
+
+alter table users_plucklists
+    add constraint UK_jej1rp4rwrw4fpu3xinvtun7 unique (plucklists_id);
+
+alter table location_entity
+    add constraint FK14707ga9anja3keayfq9ner9d
+    foreign key (location_location_id)
+    references location;
+
+alter table pluck
+    add constraint FK8i66qhs7w12yih2r1kvoc38lo
+    foreign key (pluck_list_id)
+    references pluck_list;
+
+alter table pluck
+    add constraint FKhnvj2ey8mxl8ttw2s75agbw61
+    foreign key (product_id)
+    references product;
+
+alter table pluck_list
+    add constraint FKlquas6rk59993s6ftbqbp84jq
+    foreign key (cargo_carrier_id)
+    references cargo_carrier;
+
+alter table pluck_list
+    add constraint FKattjf3eavqjyli2cejy6j5mfs
+    foreign key (user_id)
+    references users;
+
+alter table pluck_list
+    add constraint FKbrlkusskv79l9847cu4tpbkk6
+    foreign key (id)
+    references location_entity;
+
+alter table plucklist_location
+    add constraint FK205cap1m19m8xf5092kxfdl1r
+    foreign key (pluck_list_id)
+    references pluck_list;
+
+alter table product
+    add constraint FKs5mjuya5ajt31vfcxku3neetb
+    foreign key (id)
+    references location_entity;
+
+alter table users_plucklists
+    add constraint FKgbyq1u6hg8kybfv54tfc4vfwx
+    foreign key (plucklists_id)
+    references pluck_list;
+
+alter table users_plucklists
+    add constraint FK4ql813k2k6w24fonsgggwudcj
+    foreign key (users_id)
+    references users;
@@ -0,0 +1,6 @@
+-- Locations are looked up by code whenever something is stored at them
+create index if not exists location_code_idx on location (code);
+
+-- Backs the anti-joins from location to location_entity used to find free locations.
+-- Postgres does not index the referencing side of a foreign key by itself.
+create index if not exists location_entity_location_idx on location_entity (location_location_id);
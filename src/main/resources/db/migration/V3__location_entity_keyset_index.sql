@@ -0,0 +1,4 @@
+-- Lets the entities of a location be paged through by id without sorting them. The location
+-- column leads, so the index still backs the anti-joins that used location_entity_location_idx.
+create index if not exists location_entity_location_keyset_idx on location_entity (location_location_id, id);
+drop index if exists location_entity_location_idx;
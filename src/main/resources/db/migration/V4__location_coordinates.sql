@@ -0,0 +1,8 @@
+-- The zone, aisle, slot and level parsed from the code of each location. Filled in for
+-- existing locations by V5, and by the application for new ones.
+alter table location add column zone integer;
+alter table location add column aisle integer;
+alter table location add column slot integer;
+alter table location add column level integer;
+
+create index if not exists location_coordinates_idx on location (zone, aisle, slot, level);
@@ -0,0 +1,15 @@
+-- The ledger of changes to the stock of products. Movements are applied to product.quantity
+-- in the background, so only the unapplied ones are looked up, by product.
+create sequence stock_movement_seq start with 1 increment by 50;
+
+create table stock_movement (
+    amount integer not null,
+    applied boolean not null,
+    created_at timestamp(6),
+    type smallint,
+    id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create index if not exists stock_movement_unapplied_idx on stock_movement (applied, product_id);
@@ -0,0 +1,5 @@
+-- The status of a product now follows its quantity. Products stored before were given a
+-- status when created that was never updated, so it is derived here once.
+update product set status = case when quantity > 0 then 0 else 1 end;
+
+create index if not exists product_status_idx on product (status);
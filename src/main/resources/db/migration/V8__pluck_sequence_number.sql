@@ -0,0 +1,3 @@
+-- The place of each pluck in the walk through its pluck list. Plucks stored before the lists
+-- were sequenced have none, so their lists keep being ordered by pluck id.
+alter table pluck add column sequence_number integer;
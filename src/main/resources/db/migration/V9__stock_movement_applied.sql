@@ -0,0 +1,5 @@
+-- Movements are applied to product.quantity in the transaction that records them, so none are
+-- left to look up as unapplied. The ledger is looked up by product instead.
+drop index if exists stock_movement_unapplied_idx;
+alter table stock_movement drop column applied;
+create index if not exists stock_movement_product_idx on stock_movement (product_id);
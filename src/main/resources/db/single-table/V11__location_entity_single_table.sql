@@ -0,0 +1,71 @@
+-- Moves the products and pluck lists into location_entity for the single-table mapping, and
+-- drops their own tables. Only run with the single-table profile.
+alter table location_entity add column dtype varchar(31);
+alter table location_entity add column product_name varchar(255);
+alter table location_entity add column quantity integer;
+alter table location_entity add column status smallint;
+alter table location_entity add column type smallint;
+alter table location_entity add column volume float(53);
+alter table location_entity add column weight float(53);
+alter table location_entity add column confirmed_at timestamp(6);
+alter table location_entity add column destination varchar(255);
+alter table location_entity add column finished_at timestamp(6);
+alter table location_entity add column route varchar(255);
+alter table location_entity add column cargo_carrier_id bigint;
+alter table location_entity add column user_id varchar(255);
+
+update location_entity e set dtype = 'Product',
+    (product_name, quantity, status, type, volume, weight) = (
+        select p.product_name, p.quantity, p.status, p.type, p.volume, p.weight
+        from product p where p.id = e.id)
+where e.id in (select id from product);
+
+update location_entity e set dtype = 'PluckList',
+    (confirmed_at, destination, finished_at, route, cargo_carrier_id, user_id) = (
+        select pl.confirmed_at, pl.destination, pl.finished_at, pl.route, pl.cargo_carrier_id, pl.user_id
+        from pluck_list pl where pl.id = e.id)
+where e.id in (select id from pluck_list);
+
+alter table location_entity alter column dtype set not null;
+
+-- Point the foreign keys to the dropped tables at location_entity
+alter table pluck drop constraint FKhnvj2ey8mxl8ttw2s75agbw61;
+alter table pluck drop constraint FK8i66qhs7w12yih2r1kvoc38lo;
+alter table plucklist_location drop constraint FK205cap1m19m8xf5092kxfdl1r;
+alter table users_plucklists drop constraint FKgbyq1u6hg8kybfv54tfc4vfwx;
+
+drop table product;
+drop table pluck_list;
+
+alter table pluck
+    add constraint pluck_product_fk
+    foreign key (product_id)
+    references location_entity;
+
+alter table pluck
+    add constraint pluck_pluck_list_fk
+    foreign key (pluck_list_id)
+    references location_entity;
+
+alter table plucklist_location
+    add constraint plucklist_location_pluck_list_fk
+    foreign key (pluck_list_id)
+    references location_entity;
+
+alter table users_plucklists
+    add constraint users_plucklists_pluck_list_fk
+    foreign key (plucklists_id)
+    references location_entity;
+
+alter table location_entity
+    add constraint location_entity_cargo_carrier_fk
+    foreign key (cargo_carrier_id)
+    references cargo_carrier;
+
+alter table location_entity
+    add constraint location_entity_user_fk
+    foreign key (user_id)
+    references users;
+
+-- Replaces product_status_idx, dropped with the product table
+create index if not exists location_entity_status_idx on location_entity (status);
@@ -0,0 +1,44 @@
+package no.ntnu.bachelor.voicepick;
+
+import java.util.Arrays;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against the in-memory test database so benchmarks can be run
+ * outside of a test runner. Keycloak and mail are never called by the benchmarks, so
+ * placeholder values are used for their settings.
+ */
+public final class BenchmarkContext {
+
+  private static final String[] DEFAULT_PROPERTIES = {
+      "server.port=0",
+      "spring.jpa.show-sql=false",
+      "KEYCLOAK_BASE_URL=http://localhost",
+      "KEYCLOAK_REALM=benchmark",
+      "KEYCLOAK_CLIENT_ID=benchmark",
+      "KEYCLOAK_CLIENT_SECRET=benchmark",
+      "KEYCLOAK_MANAGER_USERNAME=benchmark",
+      "KEYCLOAK_MANAGER_PASSWORD=benchmark",
+      "SMTP_USER=benchmark",
+      "SMTP_PASSWORD=benchmark"
+  };
+
+  private BenchmarkContext() {
+  }
+
+  /**
+   * Starts the application
+   *
+   * @param properties extra properties in the form {@code key=value}. Given as command line
+   *                   arguments, so they take precedence over the test application properties
+   * @return the started application context. Must be closed by the caller
+   */
+  public static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(VoicePickApplication.class)
+        .properties(DEFAULT_PROPERTIES)
+        .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+  }
+
+}
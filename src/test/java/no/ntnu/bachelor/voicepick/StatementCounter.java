@@ -0,0 +1,77 @@
+package no.ntnu.bachelor.voicepick;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * A Hibernate statement inspector that counts the SQL statements prepared, grouped by their
+ * first keyword. Batched statements are only prepared once per batch, so the counts equal the
+ * number of round-trips to the database. A batch ends when a statement for another table is
+ * prepared, so inserts alternating between two tables are counted once per row.
+ *
+ * <p>Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final String SEQUENCE_KEY = "sequence";
+  private static final Map<String, AtomicInteger> COUNTS = new ConcurrentHashMap<>();
+  private static final Map<String, List<String>> STATEMENTS = new ConcurrentHashMap<>();
+
+  @Override
+  public String inspect(String sql) {
+    var normalized = sql.strip().toLowerCase(Locale.ROOT);
+    var key = normalized.contains("next value for") || normalized.contains("nextval(")
+        ? SEQUENCE_KEY
+        : normalized.split("\\s+", 2)[0];
+
+    COUNTS.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    STATEMENTS.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(sql);
+    return sql;
+  }
+
+  /**
+   * Resets all counts
+   */
+  public static void reset() {
+    COUNTS.clear();
+    STATEMENTS.clear();
+  }
+
+  /**
+   * Returns the number of statements prepared starting with the given keyword since the last reset.
+   * Sequence fetches are not counted as {@code select}.
+   *
+   * @param keyword the first keyword of the statement, for example {@code insert}
+   * @return the number of statements
+   */
+  public static int count(String keyword) {
+    var count = COUNTS.get(keyword.toLowerCase(Locale.ROOT));
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * Returns the statements prepared starting with the given keyword since the last reset
+   *
+   * @param keyword the first keyword of the statement, for example {@code select}
+   * @return the SQL of the statements, in the order they were prepared
+   */
+  public static List<String> statements(String keyword) {
+    return STATEMENTS.getOrDefault(keyword.toLowerCase(Locale.ROOT), List.of());
+  }
+
+  /**
+   * Returns the number of sequence values fetched since the last reset
+   *
+   * @return the number of sequence fetches
+   */
+  public static int sequenceCount() {
+    return count(SEQUENCE_KEY);
+  }
+
+}
@@ -0,0 +1,27 @@
+package no.ntnu.bachelor.voicepick;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Creates authorization header values for tests that call services directly. The signature is
+ * never checked by the services, only the claims are read.
+ */
+public final class TestTokens {
+
+  private TestTokens() {
+  }
+
+  /**
+   * Returns an authorization header value with a token for the given user
+   *
+   * @param userId the id put in the {@code sub} claim
+   * @return a value in the format "Bearer token"
+   */
+  public static String forUser(String userId) {
+    var payload = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(("{\"sub\":\"" + userId + "\"}").getBytes(StandardCharsets.UTF_8));
+    return "Bearer header." + payload + ".signature";
+  }
+
+}
@@ -0,0 +1,152 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import no.ntnu.bachelor.voicepick.services.LocationDirectory;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationDirectoryTest {
+
+  @Autowired
+  private LocationDirectory locationDirectory;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private LocationRepository locationRepository;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private TransactionTemplate transaction;
+
+  @Test
+  @DisplayName("Added locations are looked up without the database")
+  void addedLocationIsHit() {
+    this.locationService.addLocation("D101", 101);
+    var hits = this.lookups("hit");
+
+    StatementCounter.reset();
+    var entry = this.locationDirectory.find("D101");
+
+    assertTrue(entry.isPresent());
+    assertEquals(101, entry.get().controlDigits());
+    assertEquals(0, StatementCounter.count("select"));
+    assertEquals(hits + 1, this.lookups("hit"));
+  }
+
+  @Test
+  @DisplayName("Locations stored before a reload are in the directory")
+  void reloadReadsStoredLocations() {
+    this.jdbcTemplate.update("INSERT INTO location (location_id, code, control_digits) VALUES (1000000102, 'D102', 102)");
+    this.locationDirectory.reload();
+
+    StatementCounter.reset();
+    assertEquals(1000000102L, this.locationDirectory.find("D102").orElseThrow().id());
+    assertEquals(0, StatementCounter.count("select"));
+  }
+
+  @Test
+  @DisplayName("Codes missing from the directory are looked up in the database")
+  void missFallsBackToDatabase() {
+    this.jdbcTemplate.update("INSERT INTO location (location_id, code, control_digits) VALUES (1000000103, 'D103', 103)");
+    var misses = this.lookups("miss");
+
+    assertEquals(1000000103L, this.locationDirectory.find("D103").orElseThrow().id());
+    assertEquals(misses + 1, this.lookups("miss"));
+    assertTrue(this.locationDirectory.find("D103").isPresent());
+    assertEquals(misses + 1, this.lookups("miss"));
+
+    assertTrue(this.locationDirectory.find("D-unknown").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Deleted locations are removed from the directory")
+  void deletedLocationIsRemoved() {
+    this.locationService.addLocation("D104", 104);
+    this.locationService.deleteLocation("D104");
+
+    assertTrue(this.locationDirectory.find("D104").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Locations added in a transaction that rolls back are not added")
+  void rolledBackLocationIsNotAdded() {
+    this.transaction.executeWithoutResult(status -> {
+      this.locationService.addLocation("D105", 105);
+      status.setRollbackOnly();
+    });
+
+    assertTrue(this.locationDirectory.find("D105").isEmpty());
+  }
+
+  @Test
+  @DisplayName("The directory does not grow past its size bound")
+  void sizeIsBounded() {
+    this.locationService.addLocation("D106", 106);
+    this.locationService.addLocation("D107", 107);
+    var directory = new LocationDirectory(this.locationRepository, new SimpleMeterRegistry(), 1);
+    directory.reload();
+    assertEquals(1, directory.size());
+
+    assertTrue(directory.find("D106").isPresent());
+    assertTrue(directory.find("D107").isPresent());
+    assertEquals(1, directory.size());
+  }
+
+  @Test
+  @DisplayName("Locations removed while a reload reads the database are left out of the reloaded directory")
+  void removedDuringReloadIsLeftOut() {
+    this.locationService.addLocation("D108", 108);
+    this.locationService.addLocation("D109", 109);
+
+    // Removes D108 from the directory right after the reload has read it from the database
+    var directory = new AtomicReference<LocationDirectory>();
+    var removeDuringRead = new AtomicBoolean();
+    var repository = (LocationRepository) Proxy.newProxyInstance(LocationRepository.class.getClassLoader(),
+        new Class<?>[]{LocationRepository.class}, (proxy, method, args) -> {
+          var result = method.invoke(this.locationRepository, args);
+          if (method.getName().equals("findCodeEntries") && removeDuringRead.get()) {
+            directory.get().remove("D108");
+          }
+          return result;
+        });
+    var meterRegistry = new SimpleMeterRegistry();
+    directory.set(new LocationDirectory(repository, meterRegistry, 100_000));
+    directory.get().reload();
+
+    removeDuringRead.set(true);
+    directory.get().reload();
+
+    assertTrue(directory.get().find("D109").isPresent());
+    assertEquals(0, meterRegistry.get("location.directory.lookups").tag("result", "miss").counter().count());
+    assertTrue(directory.get().find("D108").isPresent());
+    assertEquals(1, meterRegistry.get("location.directory.lookups").tag("result", "miss").counter().count());
+  }
+
+  private double lookups(String result) {
+    return this.meterRegistry.get("location.directory.lookups").tag("result", result).counter().count();
+  }
+
+}
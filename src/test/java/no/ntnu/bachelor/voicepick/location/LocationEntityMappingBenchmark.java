@@ -0,0 +1,156 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import no.ntnu.bachelor.voicepick.BenchmarkContext;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.models.Location;
+import no.ntnu.bachelor.voicepick.models.LocationEntity;
+import no.ntnu.bachelor.voicepick.models.LocationEntityMapping;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.models.Status;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+
+/**
+ * Compares the joined mapping of the location entities against the single-table mapping on the
+ * queries that load them most often. Both run on the schema created by the Flyway migrations,
+ * with the single-table one migrated by the {@code single-table} profile.
+ *
+ * <p>Run with the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class LocationEntityMappingBenchmark {
+
+  private static final long ID_OFFSET = 1_000_000_000L;
+  private static final int LOCATIONS = 5_000;
+  private static final int PRODUCT_LOCATIONS = 2_000;
+  private static final int PRODUCTS_PER_LOCATION = 5;
+  private static final int PLUCK_LIST_LOCATIONS = 1_000;
+  private static final int PLUCK_LISTS_PER_LOCATION = 2;
+
+  @Param({ "JOINED", "SINGLE_TABLE" })
+  private LocationEntityMapping mapping;
+
+  private ConfigurableApplicationContext context;
+  private ProductRepository productRepository;
+  private LocationRepository locationRepository;
+  private LocationService locationService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var properties = new ArrayList<>(List.of(
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"));
+    if (this.mapping == LocationEntityMapping.SINGLE_TABLE) {
+      properties.add("spring.profiles.active=single-table");
+    }
+    this.context = BenchmarkContext.start(properties.toArray(String[]::new));
+    this.productRepository = this.context.getBean(ProductRepository.class);
+    this.locationRepository = this.context.getBean(LocationRepository.class);
+    this.locationService = this.context.getBean(LocationService.class);
+
+    var jdbc = this.context.getBean(JdbcTemplate.class);
+    var locations = new ArrayList<Object[]>(LOCATIONS);
+    for (var i = 0; i < LOCATIONS; i++) {
+      locations.add(new Object[] { ID_OFFSET + i, "B" + i, 100 + i % 900 });
+    }
+    jdbc.batchUpdate("INSERT INTO location (location_id, code, control_digits) VALUES (?, ?, ?)", locations);
+
+    // The first locations hold products, the next ones pluck lists and the rest are empty
+    var entities = new ArrayList<Object[]>();
+    var products = new ArrayList<Object[]>();
+    var pluckLists = new ArrayList<Object[]>();
+    var id = ID_OFFSET;
+    for (var i = 0; i < PRODUCT_LOCATIONS; i++) {
+      for (var j = 0; j < PRODUCTS_PER_LOCATION; j++, id++) {
+        entities.add(new Object[] { id, ID_OFFSET + i });
+        products.add(new Object[] { id, "Product " + id, 50, Status.READY.ordinal(), ProductType.D_PAK.ordinal(), 1.75, 1.75 });
+      }
+    }
+    for (var i = PRODUCT_LOCATIONS; i < PRODUCT_LOCATIONS + PLUCK_LIST_LOCATIONS; i++) {
+      for (var j = 0; j < PLUCK_LISTS_PER_LOCATION; j++, id++) {
+        entities.add(new Object[] { id, ID_OFFSET + i });
+        pluckLists.add(new Object[] { id, "Route " + i, "Destination " + j });
+      }
+    }
+    this.insertEntities(jdbc, entities, products, pluckLists);
+  }
+
+  private void insertEntities(JdbcTemplate jdbc, List<Object[]> entities, List<Object[]> products,
+                              List<Object[]> pluckLists) {
+    if (this.mapping == LocationEntityMapping.JOINED) {
+      jdbc.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+      jdbc.batchUpdate("INSERT INTO product (id, product_name, quantity, status, type, volume, weight) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?)", products);
+      jdbc.batchUpdate("INSERT INTO pluck_list (id, route, destination) VALUES (?, ?, ?)", pluckLists);
+      return;
+    }
+
+    // The location of each row is at the same index in the entities, products first
+    var rows = new ArrayList<Object[]>(products.size());
+    for (var i = 0; i < products.size(); i++) {
+      var product = products.get(i);
+      rows.add(new Object[] { product[0], entities.get(i)[1], product[1], product[2], product[3], product[4],
+          product[5], product[6] });
+    }
+    jdbc.batchUpdate("INSERT INTO location_entity (dtype, id, location_location_id, product_name, quantity, " +
+        "status, type, volume, weight) VALUES ('" + LocationEntityMapping.discriminatorOf(Product.class) +
+        "', ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+    rows.clear();
+    for (var i = 0; i < pluckLists.size(); i++) {
+      var pluckList = pluckLists.get(i);
+      rows.add(new Object[] { pluckList[0], entities.get(products.size() + i)[1], pluckList[1], pluckList[2] });
+    }
+    jdbc.batchUpdate("INSERT INTO location_entity (dtype, id, location_location_id, route, destination) " +
+        "VALUES ('" + LocationEntityMapping.discriminatorOf(PluckList.class) + "', ?, ?, ?, ?)", rows);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.context.close();
+  }
+
+  @Benchmark
+  public List<Product> findByLocationIsNotNull() {
+    return this.productRepository.findByLocationIsNotNull();
+  }
+
+  @Benchmark
+  public List<Location> findByPluckList() {
+    return this.locationRepository.findByPluckList();
+  }
+
+  @Benchmark
+  public Set<LocationEntity> getLocationEntities() {
+    // Either a location with products or one with pluck lists
+    var location = ThreadLocalRandom.current().nextInt(PRODUCT_LOCATIONS + PLUCK_LIST_LOCATIONS);
+    return this.locationService.getLocationEntities(ID_OFFSET + location);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LocationEntityMappingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
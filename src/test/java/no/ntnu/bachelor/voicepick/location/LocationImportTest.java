@@ -0,0 +1,133 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.ImportRowError;
+import no.ntnu.bachelor.voicepick.models.Location;
+import no.ntnu.bachelor.voicepick.services.LocationDirectory;
+import no.ntnu.bachelor.voicepick.services.LocationImportService;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationImportTest {
+
+  @Autowired
+  private LocationImportService locationImportService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private LocationDirectory locationDirectory;
+
+  @Test
+  @DisplayName("Locations are imported from CSV, and invalid rows are reported")
+  void importCsv() throws Exception {
+    this.locationService.addLocation("I100", 100);
+
+    var result = this.locationImportService.importCsv(body("""
+        code,controlDigits
+        I101,101
+        "I102"; 102
+
+        I100,100
+        I101,111
+        I103,abc
+        I104
+        ,105
+        I106,-1
+        """));
+
+    assertEquals(2, result.getImported());
+    assertEquals(6, result.getRejected());
+    assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L), result.getErrors().stream().map(ImportRowError::getRow).toList());
+    assertTrue(result.getRowsPerSecond() > 0);
+
+    assertEquals(101, this.locationService.getLocationByCode("I101").orElseThrow().getControlDigits());
+    assertEquals(102, this.locationService.getLocationByCode("I102").orElseThrow().getControlDigits());
+    assertTrue(this.locationService.getLocationByCode("I103").isEmpty());
+
+    // Added and imported locations are both found by their coordinates
+    assertEquals(List.of("I100", "I101", "I102"),
+        this.locationService.getLocationsInRange(0, "I", null, 100, 102).stream().map(Location::getCode).toList());
+    assertThrows(IllegalArgumentException.class, () -> this.locationService.getLocationsInRange(0, "1", null, null, null));
+  }
+
+  @Test
+  @DisplayName("Locations are imported from NDJSON, and invalid rows are reported")
+  void importNdjson() throws Exception {
+    var result = this.locationImportService.importNdjson(body("""
+        {"code": "J101", "controlDigits": 101}
+        {"code": "J102", "controlDigits": 102}
+        {"code": "J102", "controlDigits": 103}
+        {"code": "J104"}
+        {"code": "J105", "controlDigits": 1.5}
+        {"code": "J106",
+        """));
+
+    assertEquals(2, result.getImported());
+    assertEquals(4, result.getRejected());
+    assertEquals(List.of(3L, 4L, 5L, 6L), result.getErrors().stream().map(ImportRowError::getRow).toList());
+    assertTrue(this.locationService.getLocationByCode("J102").isPresent());
+  }
+
+  @Test
+  @DisplayName("Large imports are checked for duplicates with one query and inserted in chunks")
+  void importInBatches() throws Exception {
+    var rows = 2500;
+    var csv = IntStream.range(0, rows).mapToObj(i -> "K" + i + "," + (i % 1000)).collect(Collectors.joining("\n"));
+
+    StatementCounter.reset();
+    var result = this.locationImportService.importCsv(body(csv));
+
+    assertEquals(rows, result.getImported());
+    assertEquals(0, result.getRejected());
+    assertEquals(1, StatementCounter.count("select"));
+    // One insert statement per chunk of 1000, executed in JDBC batches
+    assertEquals(3, StatementCounter.count("insert"));
+
+    StatementCounter.reset();
+    assertEquals(499, this.locationDirectory.find("K2499").orElseThrow().controlDigits());
+    assertEquals(0, StatementCounter.count("select"));
+  }
+
+  @Test
+  @DisplayName("A chunk that cannot be saved is rejected, and the import goes on with the next chunk")
+  void failedChunkIsRejected() throws Exception {
+    // The long code does not fit the column, so saving the first chunk fails
+    var csv = IntStream.range(0, 1500)
+        .mapToObj(i -> (i == 2 ? "L".repeat(300) : "L" + i) + "," + (i % 1000))
+        .collect(Collectors.joining("\n"));
+
+    var result = this.locationImportService.importCsv(body(csv));
+
+    assertEquals(500, result.getImported());
+    assertEquals(1000, result.getRejected());
+    assertEquals(1L, result.getErrors().get(0).getRow());
+    assertEquals(1000L, result.getErrors().get(999).getRow());
+    assertTrue(this.locationService.getLocationByCode("L0").isEmpty());
+    assertTrue(this.locationDirectory.find("L999").isEmpty());
+    assertTrue(this.locationService.getLocationByCode("L1000").isPresent());
+  }
+
+  private static InputStream body(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
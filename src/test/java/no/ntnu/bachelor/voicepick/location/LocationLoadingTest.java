@@ -0,0 +1,109 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import jakarta.persistence.EntityManagerFactory;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationLoadingTest {
+
+  private static final int PRODUCTS = 30;
+  private static final int PLUCK_LISTS = 5;
+
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setup() throws Exception {
+    this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    if (this.locationService.getLocationByCode("W101").isPresent()) {
+      this.statistics.clear();
+      return;
+    }
+
+    this.locationService.addLocation("W101", 101);
+    this.locationService.addLocation("W102", 102);
+    for (var i = 0; i < PRODUCTS; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "W-Product " + i, "W101", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+    for (var i = 0; i < PLUCK_LISTS; i++) {
+      this.pluckListService.generatePluckList(0, null);
+    }
+
+    this.statistics.clear();
+  }
+
+  @Test
+  @DisplayName("Finding a location does not load the entities stored at it")
+  void findByCodeLoadsOnlyTheLocation() {
+    var location = this.locationService.getLocationByCode("W101");
+
+    assertTrue(location.isPresent());
+    assertEquals(1, this.statistics.getEntityLoadCount());
+  }
+
+  @Test
+  @DisplayName("The entities of a location are loaded with one query")
+  void getLocationEntitiesInOneQuery() {
+    var id = this.locationService.getLocationByCode("W101").orElseThrow().getId();
+    this.statistics.clear();
+
+    var entities = this.locationService.getLocationEntities(id);
+
+    assertEquals(PRODUCTS, entities.size());
+    assertEquals(1, this.statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("Generating a pluck list does not load the pluck lists already at its location")
+  void generatePluckListSkipsLocationContent() throws Exception {
+    var pluckList = this.pluckListService.generatePluckList(0, null);
+
+    assertEquals("W102", pluckList.getLocation().getCode());
+    assertEquals(0, this.statistics.getEntityStatistics(PluckList.class.getName()).getLoadCount());
+    // The location, and at most one of each product plucked
+    assertTrue(this.statistics.getEntityLoadCount() <= 1 + 10);
+  }
+
+  @Test
+  @DisplayName("Adding a product does not load its location")
+  void addProductSkipsLocation() {
+    this.locationService.addLocation("W103", 103);
+    this.statistics.clear();
+
+    this.productService.addProduct(new AddProductRequest(
+        "W-Extra", "W103", 1.75, 1.75, 50, ProductType.D_PAK));
+
+    assertEquals(0, this.statistics.getEntityLoadCount());
+    assertEquals(1, this.locationService.getLocationEntities(
+        this.locationService.getLocationByCode("W103").orElseThrow().getId()).size());
+  }
+
+}
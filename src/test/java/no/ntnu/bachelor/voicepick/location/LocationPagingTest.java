@@ -0,0 +1,107 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.models.LocationEntity;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationPagingTest {
+
+  private static final long LOCATION_ID = 1_000_000_000L;
+  private static final int PRODUCTS = 1200;
+
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private EntityManager entityManager;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.existsLocation(LOCATION_ID)) {
+      return;
+    }
+
+    this.jdbcTemplate.update("INSERT INTO location (location_id, code, control_digits) VALUES (?, 'P100', 100)", LOCATION_ID);
+    var entities = new ArrayList<Object[]>();
+    var products = new ArrayList<Object[]>();
+    for (var i = 0; i < PRODUCTS; i++) {
+      var id = LOCATION_ID + i;
+      entities.add(new Object[]{id, LOCATION_ID});
+      products.add(new Object[]{id, "P-Product " + i});
+    }
+    this.jdbcTemplate.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+    this.jdbcTemplate.batchUpdate(
+        "INSERT INTO product (id, product_name, quantity, weight, volume) VALUES (?, ?, 10, 1, 1)", products);
+  }
+
+  @Test
+  @DisplayName("Paging through a location returns every entity once, in id order")
+  void pageThroughLocation() {
+    var ids = new ArrayList<Long>();
+    Long cursor = null;
+    var pages = 0;
+    do {
+      var page = this.locationService.getLocationEntities(LOCATION_ID, cursor, 500);
+      page.getEntities().forEach(entity -> ids.add(entity.getId()));
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(3, pages);
+    assertEquals(expectedIds(), ids);
+  }
+
+  @Test
+  @DisplayName("Pages are bounded, and unknown locations are not found")
+  void invalidPages() {
+    assertThrows(IllegalArgumentException.class, () -> this.locationService.getLocationEntities(LOCATION_ID, null, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> this.locationService.getLocationEntities(LOCATION_ID, null, LocationService.MAX_PAGE_SIZE + 1));
+    assertThrows(EntityNotFoundException.class, () -> this.locationService.getLocationEntities(-1L, null, 10));
+    assertThrows(EntityNotFoundException.class, () -> this.locationService.forEachLocationEntity(-1L, entity -> {}));
+  }
+
+  @Test
+  @DisplayName("Streaming a location keeps a bounded number of entities in the persistence context")
+  void streamLocationWithBoundedContext() {
+    var ids = new ArrayList<Long>();
+    var maxManaged = new AtomicInteger();
+
+    this.locationService.forEachLocationEntity(LOCATION_ID, (LocationEntity entity) -> {
+      ids.add(entity.getId());
+      var managed = this.entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+      maxManaged.accumulateAndGet(managed, Math::max);
+    });
+
+    assertEquals(expectedIds(), ids);
+    // The entities of one fetch, and the location they are stored at
+    assertTrue(maxManaged.get() <= 500 + 1, "Managed entities: " + maxManaged.get());
+  }
+
+  private static List<Long> expectedIds() {
+    return LongStream.range(LOCATION_ID, LOCATION_ID + PRODUCTS).boxed().toList();
+  }
+
+}
@@ -0,0 +1,224 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import db.migration.V5__Backfill_location_coordinates;
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.models.Location;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the query plans of the location eligibility queries on a large warehouse, with the
+ * schema created by the Flyway migrations rather than by Hibernate.
+ */
+@SpringBootTest(properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter"})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationQueryPlanTest {
+
+  private static final long ID_OFFSET = 1_000_000_000L;
+  private static final int LOCATIONS = 20_000;
+  private static final int PRODUCT_LOCATIONS = 12_000;
+  private static final int PLUCK_LIST_LOCATIONS = 1_000;
+  private static final int PRODUCTS_PER_LOCATION = 3;
+
+  @Autowired
+  private LocationRepository locationRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setup() throws Exception {
+    if (this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM location", Long.class) > 0) {
+      return;
+    }
+
+    var locations = new ArrayList<Object[]>(LOCATIONS);
+    for (var i = 0; i < LOCATIONS; i++) {
+      locations.add(new Object[]{ID_OFFSET + i, "Q" + i, i % 1000});
+    }
+    this.jdbcTemplate.batchUpdate("INSERT INTO location (location_id, code, control_digits) VALUES (?, ?, ?)", locations);
+
+    // The first locations hold products, the next ones pluck lists and the rest are empty
+    var entities = new ArrayList<Object[]>();
+    var products = new ArrayList<Object[]>();
+    var pluckLists = new ArrayList<Object[]>();
+    var id = ID_OFFSET;
+    for (var i = 0; i < PRODUCT_LOCATIONS; i++) {
+      for (var j = 0; j < PRODUCTS_PER_LOCATION; j++, id++) {
+        entities.add(new Object[]{id, ID_OFFSET + i});
+        products.add(new Object[]{id, "Q-Product " + id});
+      }
+    }
+    for (var i = PRODUCT_LOCATIONS; i < PRODUCT_LOCATIONS + PLUCK_LIST_LOCATIONS; i++, id++) {
+      entities.add(new Object[]{id, ID_OFFSET + i});
+      pluckLists.add(new Object[]{id, "Q-Route " + i});
+    }
+    this.jdbcTemplate.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+    this.jdbcTemplate.batchUpdate("INSERT INTO product (id, product_name, quantity, weight, volume) VALUES (?, ?, 10, 1, 1)", products);
+    this.jdbcTemplate.batchUpdate("INSERT INTO pluck_list (id, route) VALUES (?, ?)", pluckLists);
+
+    // The rows are stored without coordinates, like the ones stored before they were parsed
+    this.runCoordinatesBackfill();
+
+    this.jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  @DisplayName("The migrations index the location code, the location of location entities and the status of products")
+  void migrationsCreateIndexes() {
+    var indexes = this.jdbcTemplate.queryForList(
+        "SELECT LOWER(index_name) FROM information_schema.indexes", String.class);
+
+    assertTrue(indexes.contains("location_code_idx"));
+    assertTrue(indexes.contains("location_entity_location_keyset_idx"));
+    assertTrue(indexes.contains("location_coordinates_idx"));
+    assertTrue(indexes.contains("product_status_idx"));
+  }
+
+  @Test
+  @DisplayName("The migration fills in the coordinates of locations stored before they were parsed")
+  void coordinatesAreBackfilled() {
+    var location = this.locationRepository.findByCode("Q1234").orElseThrow();
+
+    assertEquals(0, location.getZone());
+    assertEquals(16, location.getAisle());
+    assertEquals(1234, location.getSlot());
+    assertEquals(0, location.getLevel());
+  }
+
+  @Test
+  @DisplayName("Range queries over the coordinates use the coordinates index")
+  void rangeQueryUsesCoordinatesIndex() {
+    StatementCounter.reset();
+    var locations = this.locationRepository.findByCoordinates(0, 16, 16, 100, 199);
+
+    assertEquals(LongStream.range(100, 200).map(i -> ID_OFFSET + i).boxed().toList(),
+        locations.stream().map(Location::getId).toList());
+
+    var plan = this.explain(StatementCounter.statements("select").get(0), 0, 16, 16, 100, 199);
+    assertTrue(plan.contains("location_coordinates_idx"), plan);
+  }
+
+  @Test
+  @DisplayName("Locations that can hold a pluck list are the empty ones and those with pluck lists")
+  void findByPluckList() {
+    var locations = this.locationRepository.findByPluckList();
+
+    var expected = LongStream.range(PRODUCT_LOCATIONS, LOCATIONS).map(i -> ID_OFFSET + i).boxed().collect(Collectors.toSet());
+    assertEquals(expected.size(), locations.size());
+    assertEquals(expected, ids(locations));
+  }
+
+  @Test
+  @DisplayName("Locations that can hold a product are the empty ones and those with products")
+  void findByProduct() {
+    var locations = this.locationRepository.findByProduct();
+
+    var expected = LongStream.range(0, LOCATIONS)
+        .filter(i -> i < PRODUCT_LOCATIONS || i >= PRODUCT_LOCATIONS + PLUCK_LIST_LOCATIONS)
+        .map(i -> ID_OFFSET + i).boxed().collect(Collectors.toSet());
+    assertEquals(expected.size(), locations.size());
+    assertEquals(expected, ids(locations));
+  }
+
+  @Test
+  @DisplayName("Eligibility queries look up entities by index instead of scanning them")
+  void eligibilityQueriesUseIndexes() {
+    StatementCounter.reset();
+    this.locationRepository.findByPluckList();
+    assertIndexedAntiJoin(this.explain(StatementCounter.statements("select").get(0)));
+
+    StatementCounter.reset();
+    this.locationRepository.findByProduct();
+    assertIndexedAntiJoin(this.explain(StatementCounter.statements("select").get(0)));
+  }
+
+  @Test
+  @DisplayName("Finding a location by code uses the code index")
+  void findByCodeUsesIndex() {
+    StatementCounter.reset();
+    assertTrue(this.locationRepository.findByCode("Q" + (LOCATIONS - 1)).isPresent());
+
+    var plan = this.explain(StatementCounter.statements("select").get(0), "Q" + (LOCATIONS - 1));
+    assertTrue(plan.contains("location_code_idx"), plan);
+  }
+
+  @Test
+  @DisplayName("Paging through a location reads the next entities from the keyset index")
+  void entityPageUsesKeysetIndex() {
+    StatementCounter.reset();
+    var page = this.locationRepository.findEntitiesByLocationIdAfter(ID_OFFSET, ID_OFFSET, PageRequest.of(0, 2));
+    assertEquals(2, page.size());
+
+    var plan = this.explain(StatementCounter.statements("select").get(0), ID_OFFSET, ID_OFFSET, 2);
+    assertTrue(plan.contains("location_entity_location_keyset_idx"), plan);
+    assertFalse(plan.contains("location_entity.tablescan"), plan);
+  }
+
+  /**
+   * Asserts that the only table scanned is the location table itself, and that the entities of
+   * each location are found through an index
+   */
+  private static void assertIndexedAntiJoin(String plan) {
+    assertFalse(plan.contains("union"), plan);
+    assertTrue(plan.contains(": location_location_id ="), plan);
+    assertFalse(plan.contains("location_entity.tablescan"), plan);
+    assertFalse(plan.contains("product.tablescan"), plan);
+    assertFalse(plan.contains("pluck_list.tablescan"), plan);
+  }
+
+  private void runCoordinatesBackfill() throws Exception {
+    var dataSource = this.jdbcTemplate.getDataSource();
+    var connection = DataSourceUtils.getConnection(dataSource);
+    try {
+      new V5__Backfill_location_coordinates().migrate(new Context() {
+        @Override
+        public Configuration getConfiguration() {
+          return null;
+        }
+
+        @Override
+        public Connection getConnection() {
+          return connection;
+        }
+      });
+    } finally {
+      DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+  }
+
+  private String explain(String sql, Object... parameters) {
+    assertNotNull(sql);
+    return this.jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters).toLowerCase(Locale.ROOT);
+  }
+
+  private static HashSet<Long> ids(List<Location> locations) {
+    return locations.stream().map(Location::getId).collect(Collectors.toCollection(HashSet::new));
+  }
+
+}
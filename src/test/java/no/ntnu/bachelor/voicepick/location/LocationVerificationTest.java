@@ -0,0 +1,103 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.LocationMismatches;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.LocationVerificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class LocationVerificationTest {
+
+  @Autowired
+  private LocationVerificationService verificationService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("V101").isEmpty()) {
+      this.locationService.addLocation("V101", 101);
+      this.locationService.addLocation("V102", 7);
+    }
+    this.verificationService.resetMismatches();
+  }
+
+  @Test
+  @DisplayName("Spoken control digits are verified without the database")
+  void verifyWithoutDatabase() {
+    StatementCounter.reset();
+
+    assertTrue(this.verificationService.verify("V101", "101"));
+    assertTrue(this.verificationService.verify("V101", "1 0 1"));
+    assertTrue(this.verificationService.verify("V102", "007"));
+    assertFalse(this.verificationService.verify("V101", "102"));
+
+    assertEquals(0, StatementCounter.count("select"));
+  }
+
+  @Test
+  @DisplayName("Mismatches are counted per location, most mistaken first")
+  void countMismatches() {
+    this.verificationService.verify("V101", "1");
+    this.verificationService.verify("V102", "1");
+    this.verificationService.verify("V102", "2");
+    this.verificationService.verify("V102", "7");
+
+    assertEquals(List.of(new LocationMismatches("V102", 2), new LocationMismatches("V101", 1)),
+        this.verificationService.getMismatches(10));
+    assertEquals(1, this.verificationService.getMismatches(1).size());
+  }
+
+  @Test
+  @DisplayName("Unknown locations and digits that are not numbers are rejected")
+  void invalidVerifications() {
+    assertThrows(EntityNotFoundException.class, () -> this.verificationService.verify("V999", "101"));
+    assertThrows(IllegalArgumentException.class, () -> this.verificationService.verify("V101", "one"));
+    assertThrows(IllegalArgumentException.class, () -> this.verificationService.verify("V101", " "));
+    assertThrows(IllegalArgumentException.class, () -> this.verificationService.verify("V101", null));
+    assertTrue(this.verificationService.getMismatches(10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Deleted locations can no longer be verified, and new ones can at once")
+  void followLocationChanges() {
+    this.locationService.addLocation("V103", 103);
+    assertTrue(this.verificationService.verify("V103", "103"));
+
+    this.locationService.deleteLocation("V103");
+    assertThrows(EntityNotFoundException.class, () -> this.verificationService.verify("V103", "103"));
+  }
+
+  @Test
+  @DisplayName("Verifications are timed, and stay within a millisecond")
+  void verificationsAreTimed() {
+    for (var i = 0; i < 10_000; i++) {
+      this.verificationService.verify("V101", "101");
+    }
+
+    var timer = this.meterRegistry.get("location.verifications").tag("result", "verified").timer();
+    assertTrue(timer.count() >= 10_000);
+    assertTrue(timer.mean(TimeUnit.MILLISECONDS) < 1, "Mean: " + timer.mean(TimeUnit.MILLISECONDS) + " ms");
+  }
+
+}
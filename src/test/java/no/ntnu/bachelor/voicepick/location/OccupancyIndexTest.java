@@ -0,0 +1,181 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.OccupancyIndex;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest(properties = {
+    "pluck-list.sampling-strategy=INDEX",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter"})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class OccupancyIndexTest {
+
+  @Autowired
+  private OccupancyIndex occupancyIndex;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private TransactionTemplate transaction;
+  @SpyBean
+  private LocationRepository locationRepository;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("O101").isPresent()) {
+      return;
+    }
+
+    this.locationService.addLocation("O101", 101);
+    this.locationService.addLocation("O102", 102);
+    this.productService.addProduct(new AddProductRequest(
+        "O-Product", "O101", 1.75, 1.75, 50, ProductType.D_PAK));
+  }
+
+  @Test
+  @DisplayName("Locations holding products are neither free nor picked for pluck lists")
+  void productLocationsAreOccupied() {
+    // Added here rather than in setup, so no pluck list generated by another test can be placed there
+    this.locationService.addLocation("O103", 103);
+    var o101 = this.idOf("O101");
+    var o103 = this.idOf("O103");
+
+    assertTrue(this.occupancyIndex.productLocationIds().containsAll(List.of(o101, o103)));
+    assertFalse(this.occupancyIndex.pluckListLocationIds().contains(o101));
+    assertTrue(this.occupancyIndex.pluckListLocationIds().contains(o103));
+  }
+
+  @Test
+  @DisplayName("Random pluck list locations are picked without the database")
+  void randomPluckListLocationsWithoutDatabase() {
+    var free = new HashSet<>(this.occupancyIndex.pluckListLocationIds());
+
+    StatementCounter.reset();
+    var random = new SplittableRandom(1);
+    for (var i = 0; i < 20; i++) {
+      var picked = this.occupancyIndex.randomPluckListLocationIds(3, random);
+      assertEquals(Math.min(3, free.size()), picked.size());
+      assertEquals(picked.size(), new HashSet<>(picked).size());
+      assertTrue(free.containsAll(picked));
+    }
+    assertEquals(0, StatementCounter.count("select"));
+  }
+
+  @Test
+  @DisplayName("Generated pluck lists are placed at a free location, which then only takes pluck lists")
+  void generatedPluckListOccupiesLocation() throws Exception {
+    var free = new HashSet<>(this.occupancyIndex.pluckListLocationIds());
+
+    StatementCounter.reset();
+    var pluckList = this.pluckListService.generatePluckList(0, null);
+    var id = pluckList.getLocation().getId();
+
+    assertTrue(StatementCounter.statements("select").stream().noneMatch(sql -> sql.contains("exists")));
+    assertTrue(free.contains(id));
+    assertTrue(this.occupancyIndex.pluckListLocationIds().contains(id));
+    assertFalse(this.occupancyIndex.productLocationIds().contains(id));
+  }
+
+  @Test
+  @DisplayName("Deleting the products at a location frees it")
+  void deletedProductsFreeLocation() {
+    this.locationService.addLocation("O105", 105);
+    this.productService.addProduct(new AddProductRequest(
+        "O-Deleted", "O105", 1.75, 1.75, 50, ProductType.D_PAK));
+    var o105 = this.idOf("O105");
+    assertFalse(this.occupancyIndex.pluckListLocationIds().contains(o105));
+
+    this.productService.deleteAll("O-Deleted");
+
+    assertTrue(this.occupancyIndex.pluckListLocationIds().contains(o105));
+  }
+
+  @Test
+  @DisplayName("Changes that are rolled back are not indexed")
+  void rolledBackChangesAreIgnored() {
+    this.locationService.addLocation("O106", 106);
+    var o106 = this.idOf("O106");
+
+    this.transaction.executeWithoutResult(status -> {
+      this.productService.addProduct(new AddProductRequest(
+          "O-RolledBack", "O106", 1.75, 1.75, 50, ProductType.D_PAK));
+      status.setRollbackOnly();
+    });
+
+    assertTrue(this.occupancyIndex.pluckListLocationIds().contains(o106));
+  }
+
+  @Test
+  @DisplayName("Changes made outside the application are picked up on resync")
+  void resyncPicksUpOutsideChanges() {
+    this.jdbcTemplate.update("INSERT INTO location (location_id, code, control_digits) VALUES (1000000107, 'O107', 107)");
+    this.jdbcTemplate.update("INSERT INTO location_entity (id, location_location_id) VALUES (1000000107, 1000000107)");
+    this.jdbcTemplate.update("INSERT INTO product (id, product_name, quantity, weight, volume) VALUES (1000000107, 'O-Outside', 1, 1, 1)");
+    assertFalse(this.occupancyIndex.productLocationIds().contains(1000000107L));
+
+    this.locationService.resyncOccupancy();
+
+    assertTrue(this.occupancyIndex.productLocationIds().contains(1000000107L));
+    assertFalse(this.occupancyIndex.pluckListLocationIds().contains(1000000107L));
+  }
+
+  @Test
+  @DisplayName("Changes committed while the database is read for a resync are not lost")
+  void changesDuringResyncAreKept() {
+    this.locationService.addLocation("O108", 108);
+    var o108 = this.idOf("O108");
+
+    // The product is added after the products have been counted, but before the index is rebuilt
+    // The repository is a proxy, so the spy answers by delegating to it rather than with real methods
+    var repository = mockingDetails(this.locationRepository).getMockCreationSettings().getDefaultAnswer();
+    var added = new AtomicBoolean();
+    doAnswer(invocation -> {
+      var counts = repository.answer(invocation);
+      if (added.compareAndSet(false, true)) {
+        this.productService.addProduct(new AddProductRequest(
+            "O-During", "O108", 1.75, 1.75, 50, ProductType.D_PAK));
+      }
+      return counts;
+    }).when(this.locationRepository).countProductsByLocation();
+
+    assertTrue(this.occupancyIndex.resync());
+    assertTrue(this.occupancyIndex.productLocationIds().contains(o108));
+    assertFalse(this.occupancyIndex.pluckListLocationIds().contains(o108));
+  }
+
+  private Long idOf(String code) {
+    return this.locationService.getLocationByCode(code).orElseThrow().getId();
+  }
+
+}
@@ -0,0 +1,195 @@
+package no.ntnu.bachelor.voicepick.location;
+
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.models.Status;
+import no.ntnu.bachelor.voicepick.models.StockMovementType;
+import no.ntnu.bachelor.voicepick.repositories.LocationRepository;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductImportService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import no.ntnu.bachelor.voicepick.services.StockMovementService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application with the single-table mapping of the location entities, on the schema
+ * created by the Flyway migrations, and checks the migration of existing rows.
+ */
+@SpringBootTest(properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles("single-table")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class SingleTableMappingTest {
+
+  private static final long ID_OFFSET = 1_000_000_000L;
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private ProductImportService productImportService;
+  @Autowired
+  private StockMovementService stockMovementService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductRepository productRepository;
+  @Autowired
+  private LocationRepository locationRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("T101").isPresent()) {
+      return;
+    }
+
+    this.locationService.addLocation("T101", 101);
+    this.locationService.addLocation("T102", 102);
+    this.locationService.addLocation("T103", 103);
+    this.productService.addProduct(new AddProductRequest(
+        "T-Product", "T101", 1.75, 1.75, 50, ProductType.D_PAK));
+  }
+
+  @Test
+  @DisplayName("Products and pluck lists are stored in location_entity, told apart by dtype")
+  void entitiesShareOneTable() throws Exception {
+    var pluckList = this.pluckListService.generatePluckList(0, null);
+
+    var tables = this.jdbcTemplate.queryForList(
+        "SELECT LOWER(table_name) FROM information_schema.tables", String.class);
+    assertFalse(tables.contains("product"));
+    assertFalse(tables.contains("pluck_list"));
+
+    var types = this.jdbcTemplate.queryForList("SELECT dtype FROM location_entity WHERE id IN (?, ?)", String.class,
+        this.productService.getProductsByName("T-Product").get(0).getId(), pluckList.getId());
+    assertEquals(List.of("PluckList", "Product"), types.stream().sorted().toList());
+
+    var entities = this.locationService.getLocationEntities(pluckList.getLocation().getId());
+    assertTrue(entities.stream().allMatch(PluckList.class::isInstance));
+  }
+
+  @Test
+  @DisplayName("Native queries read and write the products and pluck lists in location_entity")
+  void nativeQueriesFollowMapping() throws Exception {
+    var result = this.productImportService.importNdjson(new ByteArrayInputStream("""
+        {"name": "T-Imported", "location": "T102", "weight": 1, "volume": 1, "quantity": 10}
+        {"name": "T-Imported", "weight": 1, "volume": 1, "quantity": 10}
+        """.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(2, result.getImported());
+
+    var available = this.productService.getAvailableProducts().stream().map(Product::getName).toList();
+    assertTrue(available.contains("T-Imported"));
+    var positions = this.productRepository.findAvailableIdsAtPositions(List.of(1L, 2L, 3L, 4L, 5L));
+    assertEquals(Math.min(5, available.size()), positions.size());
+
+    var locations = this.locationRepository.findPluckListIdsAtPositions(List.of(1L, 2L, 3L));
+    assertFalse(locations.contains(this.locationService.getLocationByCode("T101").orElseThrow().getId()));
+
+    var lowestProduct = this.productRepository.findIdRange().orElseThrow().lowest();
+    assertEquals(Math.min(2, available.size()),
+        this.productRepository.findAvailableIdsAtOrAfter(List.of(lowestProduct, lowestProduct)).size());
+    var lowestLocation = this.locationRepository.findIdRange().orElseThrow().lowest();
+    assertFalse(this.locationRepository.findPluckListIdsAtOrAfter(List.of(lowestLocation))
+        .contains(this.locationService.getLocationByCode("T101").orElseThrow().getId()));
+
+    var imported = this.productService.getProductsByName("T-Imported").get(0);
+    this.stockMovementService.record(imported.getId(), StockMovementType.PICK, 10);
+    this.stockMovementService.flush();
+    var stored = this.productRepository.findById(imported.getId()).orElseThrow();
+    assertEquals(0, stored.getQuantity());
+    assertEquals(Status.EMPTY, stored.getStatus());
+
+    this.productService.deleteAll("T-Imported");
+    assertTrue(this.productService.getProductsByName("T-Imported").isEmpty());
+    assertEquals(0, this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM location_entity WHERE product_name = 'T-Imported'", Long.class));
+  }
+
+  @Test
+  @DisplayName("The migration moves existing products and pluck lists into location_entity")
+  void migrationMovesRows() {
+    var dataSource = new DriverManagerDataSource("jdbc:h2:mem:single-table-migration;DB_CLOSE_DELAY=-1", "sa", "");
+    Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target("7").load().migrate();
+
+    this.migrateToSingleTable(dataSource);
+  }
+
+  @Test
+  @DisplayName("A database at the latest joined migration can switch to the single-table mapping")
+  void migrationFromLatestVersion() {
+    var dataSource = new DriverManagerDataSource("jdbc:h2:mem:single-table-latest;DB_CLOSE_DELAY=-1", "sa", "");
+    Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+    this.migrateToSingleTable(dataSource);
+  }
+
+  /**
+   * Stores a product and a pluck list in the joined tables, migrates with the single-table
+   * migrations added and checks the rows were moved
+   */
+  private void migrateToSingleTable(DriverManagerDataSource dataSource) {
+    var jdbc = new JdbcTemplate(dataSource);
+    jdbc.update("INSERT INTO location (location_id, code, control_digits) VALUES (?, 'M101', 101), (?, 'M102', 102)",
+        ID_OFFSET, ID_OFFSET + 1);
+    jdbc.update("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?), (?, ?)",
+        ID_OFFSET, ID_OFFSET, ID_OFFSET + 1, ID_OFFSET + 1);
+    jdbc.update("INSERT INTO product (id, product_name, quantity, status, weight, volume) VALUES (?, 'M-Product', 5, 0, 1, 2)",
+        ID_OFFSET);
+    jdbc.update("INSERT INTO pluck_list (id, route, destination) VALUES (?, 'M-Route', 'M-Destination')", ID_OFFSET + 1);
+    jdbc.update("INSERT INTO pluck (pluck_id, amount, pluck_list_id, product_id) VALUES (?, 1, ?, ?)",
+        ID_OFFSET, ID_OFFSET + 1, ID_OFFSET);
+
+    Flyway.configure().dataSource(dataSource).locations("classpath:db/migration", "classpath:db/single-table").load().migrate();
+
+    var rows = jdbc.queryForList("SELECT * FROM location_entity ORDER BY id").stream()
+        .map(row -> row.entrySet().stream()
+            .filter(column -> column.getValue() != null)
+            .collect(Collectors.toMap(column -> column.getKey().toLowerCase(), Map.Entry::getValue)))
+        .toList();
+    assertEquals("Product", rows.get(0).get("dtype"));
+    assertEquals("M-Product", rows.get(0).get("product_name"));
+    assertEquals(5, rows.get(0).get("quantity"));
+    assertEquals(2.0, rows.get(0).get("volume"));
+    assertEquals("PluckList", rows.get(1).get("dtype"));
+    assertEquals("M-Route", rows.get(1).get("route"));
+    assertEquals("M-Destination", rows.get(1).get("destination"));
+    assertNull(rows.get(1).get("product_name"));
+
+    var tables = jdbc.queryForList("SELECT LOWER(table_name) FROM information_schema.tables", String.class);
+    assertFalse(tables.contains("product"));
+    assertFalse(tables.contains("pluck_list"));
+    assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM pluck", Long.class));
+
+    // The picks still refer to their products, now in location_entity
+    assertThrows(Exception.class, () -> jdbc.update("DELETE FROM location_entity WHERE id = ?", ID_OFFSET));
+  }
+
+}
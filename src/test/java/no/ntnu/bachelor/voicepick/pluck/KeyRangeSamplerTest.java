@@ -0,0 +1,100 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.KeyRangeSampler.KeyRange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyRangeSamplerTest {
+
+  @Test
+  @DisplayName("Sampled keys are distinct matching keys, found with a probe each")
+  void sampleIsDistinct() {
+    var random = new Random(42);
+    // Every third key of 1 to 3000 matches
+    var table = new Table(LongStream.rangeClosed(1, 1000).map(i -> i * 3).boxed().toList());
+
+    for (var k = 1; k <= 20; k++) {
+      var sample = KeyRangeSampler.sample(new KeyRange(1, 3000), k, random, table::firstAtOrAfter, table::first);
+
+      assertEquals(k, sample.size());
+      assertEquals(k, new HashSet<>(sample).size());
+      assertTrue(table.keys.containsAll(sample));
+    }
+    assertEquals(0, table.firstCalls);
+  }
+
+  @Test
+  @DisplayName("Every matching key is returned when fewer match than asked for")
+  void fewerMatchingKeys() {
+    var table = new Table(List.of(10L, 500L, 990L));
+
+    var sample = KeyRangeSampler.sample(new KeyRange(1, 1000), 5, new Random(42), table::firstAtOrAfter, table::first);
+
+    assertEquals(new HashSet<>(table.keys), new HashSet<>(sample));
+  }
+
+  @Test
+  @DisplayName("Keys are picked from the first ones when every probe misses")
+  void probesMissing() {
+    // Only the lowest keys of a wide range match, so probes almost always run past them
+    var table = new Table(LongStream.rangeClosed(1, 10).boxed().toList());
+
+    var sample = KeyRangeSampler.sample(new KeyRange(1, Long.MAX_VALUE - 1), 3, new Random(42),
+        table::firstAtOrAfter, table::first);
+
+    assertEquals(3, sample.size());
+    assertTrue(table.keys.containsAll(sample));
+  }
+
+  @Test
+  @DisplayName("Nothing is picked when no key matches")
+  void noMatchingKeys() {
+    var table = new Table(List.of());
+
+    assertTrue(KeyRangeSampler.sample(new KeyRange(1, 1000), 5, new Random(42), table::firstAtOrAfter, table::first)
+        .isEmpty());
+  }
+
+  /**
+   * The matching keys of a table, looked up like an index
+   */
+  private static class Table {
+
+    private final TreeSet<Long> keys;
+    private int firstCalls;
+
+    Table(Collection<Long> keys) {
+      this.keys = new TreeSet<>(keys);
+    }
+
+    List<Long> firstAtOrAfter(Collection<Long> probes) {
+      var found = new ArrayList<Long>();
+      for (var probe : probes) {
+        var key = this.keys.ceiling(probe);
+        if (key != null) {
+          found.add(key);
+        }
+      }
+      return found;
+    }
+
+    List<Long> first(int limit) {
+      this.firstCalls++;
+      return this.keys.stream().limit(limit).toList();
+    }
+
+  }
+
+}
@@ -0,0 +1,62 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.PickPathSequencer;
+
+/**
+ * Measures the cost of sequencing the locations of a pluck list, with and without the 2-opt
+ * pass, for a growing number of lines. The locations are spread over 26 aisles of 60 slots.
+ *
+ * <p>Run with the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickPathBenchmark {
+
+  @Param({ "10", "50", "100", "500" })
+  private int lines;
+
+  @Param({ "false", "true" })
+  private boolean twoOpt;
+
+  private List<String> codes;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var random = new Random(42);
+
+    this.codes = new ArrayList<>(this.lines);
+    for (var i = 0; i < this.lines; i++) {
+      this.codes.add((char) ('A' + random.nextInt(26)) + String.format("%02d", random.nextInt(60) + 1));
+    }
+
+    var serpentine = PickPathSequencer.length(PickPathSequencer.sequence(this.codes, false));
+    var improved = PickPathSequencer.length(PickPathSequencer.sequence(this.codes, true));
+    System.out.printf("%n%d lines: serpentine walk %d, 2-opt walk %d%n", this.lines, serpentine, improved);
+  }
+
+  @Benchmark
+  public List<String> sequence() {
+    return PickPathSequencer.sequence(this.codes, this.twoOpt);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(PickPathBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,88 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.LocationCode;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.PickPathSequencer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PickPathSequencerTest {
+
+  @Test
+  @DisplayName("Location codes are parsed into aisle and slot")
+  void parseLocationCode() {
+    assertEquals(new LocationCode(7, 9), LocationCode.parse("H09").orElseThrow());
+    assertEquals(new LocationCode(0, 101), LocationCode.parse("a101").orElseThrow());
+    assertEquals(new LocationCode(26, 1), LocationCode.parse("AA1").orElseThrow());
+    assertEquals(new LocationCode(2, 7, 9, 3), LocationCode.parse("2-H09-3").orElseThrow());
+    assertEquals(new LocationCode(0, 7, 9, 1), LocationCode.parse("H09-1").orElseThrow());
+    assertEquals(26, LocationCode.parseAisle("aa").orElseThrow());
+    assertTrue(LocationCode.parseAisle("H1").isEmpty());
+    assertTrue(LocationCode.parse("09H").isEmpty());
+    assertTrue(LocationCode.parse("").isEmpty());
+    assertTrue(LocationCode.parse(null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Aisles are walked as a serpentine")
+  void serpentine() {
+    var walk = PickPathSequencer.sequence(List.of("B02", "A05", "C01", "A01", "B07", "C04"), false);
+
+    assertEquals(List.of("A01", "A05", "B07", "B02", "C01", "C04"), walk);
+  }
+
+  @Test
+  @DisplayName("Zones are walked one after another, each as its own serpentine")
+  void zonesFirst() {
+    var codes = List.of("2-A01", "1-B03", "A05", "2-B02", "1-A02", "B01", "1-B03-2", "1-B03-1");
+
+    assertEquals(List.of("A05", "B01", "1-A02", "1-B03", "1-B03-1", "1-B03-2", "2-A01", "2-B02"),
+        PickPathSequencer.sequence(codes, false));
+
+    var improved = PickPathSequencer.sequence(codes, true);
+    assertEquals(List.of(0, 0, 1, 1, 1, 1, 2, 2),
+        improved.stream().map(code -> LocationCode.parse(code).orElseThrow().zone()).toList());
+  }
+
+  @Test
+  @DisplayName("Walking between zones is longer than walking between neighbouring aisles")
+  void zoneDistance() {
+    assertTrue(PickPathSequencer.length(List.of("A01", "1-A01")) > PickPathSequencer.length(List.of("A01", "B01")));
+    assertEquals(PickPathSequencer.length(List.of("A01", "A03")), PickPathSequencer.length(List.of("A01-1", "A03-4")));
+  }
+
+  @Test
+  @DisplayName("Codes that cannot be parsed come last and duplicates are removed")
+  void unparsedCodesLast() {
+    var walk = PickPathSequencer.sequence(List.of("Dock", "B01", "A01", "B01", "12"), false);
+
+    assertEquals(List.of("A01", "B01", "12", "Dock"), walk);
+  }
+
+  @Test
+  @DisplayName("2-opt never makes the walk longer")
+  void twoOptIsNotLonger() {
+    var random = new Random(42);
+
+    for (var trial = 0; trial < 50; trial++) {
+      var codes = new ArrayList<String>();
+      for (var i = 0; i < 30; i++) {
+        codes.add((char) ('A' + random.nextInt(8)) + String.valueOf(random.nextInt(40) + 1));
+      }
+
+      var serpentine = PickPathSequencer.sequence(codes, false);
+      var improved = PickPathSequencer.sequence(codes, true);
+
+      assertEquals(new HashSet<>(serpentine), new HashSet<>(improved));
+      assertTrue(PickPathSequencer.length(improved) <= PickPathSequencer.length(serpentine));
+    }
+  }
+
+}
@@ -11,7 +11,6 @@ import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
 import no.ntnu.bachelor.voicepick.features.pluck.services.CargoCarrierService;
 import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
 import no.ntnu.bachelor.voicepick.models.ProductType;
-import no.ntnu.bachelor.voicepick.models.Status;
 import no.ntnu.bachelor.voicepick.services.LocationService;
 import no.ntnu.bachelor.voicepick.services.ProductService;
 
@@ -140,8 +139,7 @@ class PluckListControllerTest {
         1.75,
         1.75,
         50,
-        ProductType.D_PAK,
-        Status.READY));
+        ProductType.D_PAK));
 
     // Get pluck list
     var headers = new HttpHeaders();
@@ -0,0 +1,111 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.TestTokens;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
+import no.ntnu.bachelor.voicepick.features.authentication.repositories.UserRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckDetails;
+import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListDetailsTest {
+
+  private static final String USER_ID = "details-test-user";
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private TransactionTemplate transaction;
+
+  @BeforeEach
+  void setup() {
+    if (this.userRepository.findById(USER_ID).isPresent()) {
+      return;
+    }
+
+    this.userRepository.save(new User(USER_ID, "De", "Tails", "details@test.no"));
+    this.locationService.addLocation("V101", 101);
+    this.locationService.addLocation("V102", 102);
+    for (var i = 0; i < 10; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "V-Product " + i, "V101", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+  }
+
+  @Test
+  @DisplayName("Pluck list details are read with one query")
+  void findDetailsById() throws Exception {
+    var pluckList = this.pluckListService.generateRandomPluckList(TestTokens.forUser(USER_ID));
+
+    StatementCounter.reset();
+    var details = this.pluckListService.findDetailsById(pluckList.getId()).orElseThrow();
+
+    assertEquals(1, StatementCounter.count("select"));
+    assertEquals(pluckList.getRoute(), details.getRoute());
+    assertEquals("V102", details.getLocation());
+    assertNull(details.getCargoCarrier());
+    assertEquals(
+        pluckList.getPlucks().stream().map(Pluck::getId).collect(Collectors.toSet()),
+        details.getPlucks().stream().map(PluckDetails::getId).collect(Collectors.toSet()));
+    details.getPlucks().forEach(pluck -> {
+      assertTrue(pluck.getProductName().startsWith("V-Product"));
+      assertEquals("V101", pluck.getLocation());
+      assertEquals(101, pluck.getControlDigits());
+    });
+  }
+
+  @Test
+  @DisplayName("Pluck list details are smaller than the pluck list entity")
+  void detailsPayloadIsSmaller() throws Exception {
+    var id = this.pluckListService.generateRandomPluckList(TestTokens.forUser(USER_ID)).getId();
+
+    // Serialize the entity in a session, like the open session of a web request
+    var entityJson = this.transaction.execute(status -> {
+      try {
+        return this.objectMapper.writeValueAsString(this.pluckListService.findById(id).orElseThrow());
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    var detailsJson = this.objectMapper.writeValueAsString(this.pluckListService.findDetailsById(id).orElseThrow());
+
+    assertTrue(detailsJson.length() < entityJson.length());
+  }
+
+  @Test
+  @DisplayName("Details of an unknown pluck list are empty")
+  void findDetailsOfUnknownPluckList() {
+    assertTrue(this.pluckListService.findDetailsById(-1L).isEmpty());
+  }
+
+}
@@ -0,0 +1,98 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.TestTokens;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
+import no.ntnu.bachelor.voicepick.features.authentication.repositories.UserRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListPersistenceTest {
+
+  private static final String USER_ID = "persistence-test-user";
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private UserRepository userRepository;
+
+  @BeforeEach
+  void setup() {
+    if (this.userRepository.findById(USER_ID).isPresent()) {
+      return;
+    }
+
+    this.userRepository.save(new User(USER_ID, "Per", "Sistens", "persistence@test.no"));
+    this.locationService.addLocation("P101", 101);
+    this.locationService.addLocation("P102", 102);
+    for (var i = 0; i < 20; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "Product " + i, "P101", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+  }
+
+  @Test
+  @DisplayName("A generated pluck list is inserted with one batch per table")
+  void generatedPluckListIsBatched() throws Exception {
+    var token = TestTokens.forUser(USER_ID);
+
+    // Warm up the pooled sequences
+    this.pluckListService.generateRandomPluckList(token);
+
+    for (var i = 0; i < 5; i++) {
+      StatementCounter.reset();
+
+      var pluckList = this.pluckListService.generateRandomPluckList(token);
+
+      assertFalse(pluckList.getPlucks().isEmpty());
+      // location_entity, pluck_list and pluck, no matter how many plucks the list has
+      assertEquals(3, StatementCounter.count("insert"));
+      // The stock reserved for every product plucked
+      assertEquals(1, StatementCounter.count("update"));
+      assertTrue(StatementCounter.sequenceCount() <= 2);
+    }
+  }
+
+  @Test
+  @DisplayName("A wave of pluck lists is read once, and all its plucks are inserted in one batch")
+  void generatedWaveIsBatched() throws Exception {
+    // Warm up the pooled sequences
+    this.pluckListService.generatePluckLists("1234", 1);
+    StatementCounter.reset();
+
+    var summaries = this.pluckListService.generatePluckLists("1234", 4);
+
+    assertEquals(4, summaries.size());
+    summaries.forEach(summary -> {
+      assertEquals("1234", summary.getRoute());
+      assertEquals("P102", summary.getLocation());
+      assertTrue(summary.getNumberOfPlucks() > 0);
+    });
+    // The JOINED inheritance of LocationEntity alternates between location_entity and pluck_list
+    // for each pluck list, which splits their batches. All plucks still go in one batch.
+    assertEquals(2 * 4 + 1, StatementCounter.count("insert"));
+    assertEquals(1, StatementCounter.count("update"));
+  }
+
+}
@@ -0,0 +1,113 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.TestTokens;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
+import no.ntnu.bachelor.voicepick.features.authentication.repositories.UserRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListPoolService;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "pluck-list.pool.high-water-mark=2",
+    "pluck-list.pool.refill-interval=3600000"
+})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListPoolTest {
+
+  private static final String USER_ID = "pool-test-user";
+  private static final int THREADS = 8;
+
+  @Autowired
+  private PluckListPoolService poolService;
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private UserRepository userRepository;
+
+  @BeforeEach
+  void setup() {
+    if (this.userRepository.findById(USER_ID).isPresent()) {
+      return;
+    }
+
+    this.userRepository.save(new User(USER_ID, "Po", "Ol", "pool@test.no"));
+    for (var i = 0; i < THREADS; i++) {
+      this.userRepository.save(new User(USER_ID + "-" + i, "Po", "Ol " + i, "pool" + i + "@test.no"));
+    }
+    this.locationService.addLocation("Q101", 101);
+    this.locationService.addLocation("Q102", 102);
+    this.productService.addProduct(new AddProductRequest(
+        "Q-Melk", "Q101", 1.75, 1.75, 1000, ProductType.D_PAK));
+  }
+
+  @Test
+  @DisplayName("Claim pre-generated pluck lists from the pool")
+  void claimPooledPluckList() throws Exception {
+    this.poolService.refill();
+
+    var routes = this.pluckListService.getRoutes();
+    routes.forEach(route -> assertEquals(2, this.poolService.getDepth(route)));
+
+    var pluckList = this.poolService.claim(TestTokens.forUser(USER_ID));
+
+    assertEquals(USER_ID, pluckList.getUser().getId());
+    assertEquals(1, this.poolService.getDepth(pluckList.getRoute()));
+    assertEquals(2 * routes.size() - 1, routes.stream().mapToInt(this.poolService::getDepth).sum());
+
+    // A claimed pluck list is never handed out again
+    this.poolService.refill();
+    assertTrue(this.pluckListService.findUnassignedIds(pluckList.getRoute()).stream()
+        .noneMatch(id -> id.equals(pluckList.getId())));
+  }
+
+  @Test
+  @DisplayName("A pluck list claimed by several users at once is assigned to one of them")
+  void concurrentClaimsAssignOnce() throws Exception {
+    var id = this.pluckListService.generatePluckList(0, null).getId();
+
+    var executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      var claims = new ArrayList<Callable<Optional<PluckList>>>();
+      for (var i = 0; i < THREADS; i++) {
+        var token = TestTokens.forUser(USER_ID + "-" + i);
+        claims.add(() -> this.pluckListService.assignPluckList(id, token));
+      }
+
+      var assigned = new ArrayList<PluckList>();
+      for (var claim : executor.invokeAll(claims)) {
+        claim.get().ifPresent(assigned::add);
+      }
+
+      assertEquals(1, assigned.size());
+      assertEquals(assigned.get(0).getUser().getId(),
+          this.pluckListService.findById(id).orElseThrow().getUser().getId());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
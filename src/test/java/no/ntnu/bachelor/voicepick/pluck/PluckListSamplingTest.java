@@ -0,0 +1,81 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListSamplingTest {
+
+  private static final RandomGenerator RANDOM = new Random(42);
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("S101").isPresent()) {
+      return;
+    }
+
+    this.locationService.addLocation("S101", 101);
+    this.locationService.addLocation("S102", 102);
+    for (var i = 0; i < 20; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "Product " + i, "S101", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+    this.productService.addProduct(new AddProductRequest(
+        "Unplaced", "", 1.75, 1.75, 50, ProductType.D_PAK));
+  }
+
+  @Test
+  @DisplayName("Random available products are limited and have a location")
+  void getRandomAvailableProducts() {
+    var products = this.productService.getRandomAvailableProducts(10, RANDOM);
+
+    assertEquals(10, products.size());
+    assertEquals(10, products.stream().map(Product::getId).collect(Collectors.toSet()).size());
+    assertTrue(products.stream().allMatch(product -> product.getLocation() != null));
+  }
+
+  @Test
+  @DisplayName("Random pluck list location is never a product location")
+  void getRandomPluckListLocation() {
+    for (var i = 0; i < 10; i++) {
+      var location = this.locationService.getRandomPluckListLocation(RANDOM);
+
+      assertTrue(location.isPresent());
+      assertEquals("S102", location.get().getCode());
+    }
+  }
+
+  @Test
+  @DisplayName("All available products are returned when fewer than asked for are available")
+  void getAllAvailableProducts() {
+    var products = this.productService.getRandomAvailableProducts(100, RANDOM);
+
+    assertEquals(20, products.size());
+    assertTrue(products.stream().allMatch(product -> product.getLocation() != null));
+  }
+
+}
@@ -0,0 +1,116 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.TestTokens;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.authentication.models.User;
+import no.ntnu.bachelor.voicepick.features.authentication.repositories.UserRepository;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSource;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListSeedTest {
+
+  private static final String USER_ID = "seed-test-user";
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private UserRepository userRepository;
+
+  @BeforeEach
+  void setup() {
+    if (this.userRepository.findById(USER_ID).isPresent()) {
+      return;
+    }
+
+    this.userRepository.save(new User(USER_ID, "Se", "Ed", "seed@test.no"));
+    for (var i = 0; i < 5; i++) {
+      this.locationService.addLocation("R10" + i, 100 + i);
+    }
+    for (var i = 0; i < 30; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "R-Product " + i, "R100", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+  }
+
+  @Test
+  @DisplayName("Same seed generates the same pluck list")
+  void sameSeedSamePluckList() throws Exception {
+    var token = TestTokens.forUser(USER_ID);
+
+    var first = this.pluckListService.generateRandomPluckList(token, 42L);
+    var second = this.pluckListService.generateRandomPluckList(token, 42L);
+
+    assertNotEquals(first.getId(), second.getId());
+    assertEquals(describe(first), describe(second));
+  }
+
+  @Test
+  @DisplayName("Different seeds generate different pluck lists")
+  void differentSeedsDifferentPluckLists() throws Exception {
+    var token = TestTokens.forUser(USER_ID);
+
+    var descriptions = IntStream.range(0, 5)
+        .mapToObj(seed -> {
+          try {
+            return describe(this.pluckListService.generateRandomPluckList(token, (long) seed));
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        })
+        .distinct()
+        .count();
+
+    assertTrue(descriptions > 1);
+  }
+
+  @Test
+  @DisplayName("Configured seed hands out the same generators in the same order")
+  void configuredSeed() {
+    var first = new RandomSource(7L);
+    var second = new RandomSource(7L);
+
+    assertTrue(first.isSeeded());
+    for (var i = 0; i < 10; i++) {
+      assertEquals(first.next().nextLong(), second.next().nextLong());
+    }
+    assertFalse(new RandomSource(null).isSeeded());
+  }
+
+  private static List<String> describe(PluckList pluckList) {
+    var description = new ArrayList<String>();
+    description.add(pluckList.getRoute());
+    description.add(pluckList.getLocation().getCode());
+    pluckList.getPlucks().stream()
+        .sorted(Comparator.comparing(pluck -> pluck.getProduct().getId()))
+        .map(pluck -> pluck.getProduct().getId() + "x" + pluck.getAmount())
+        .forEach(description::add);
+    return description;
+  }
+
+}
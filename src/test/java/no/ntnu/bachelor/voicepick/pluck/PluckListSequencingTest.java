@@ -0,0 +1,66 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.features.pluck.utils.PickPathSequencer;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckListSequencingTest {
+
+  private static final String[] PRODUCT_LOCATIONS = { "C02", "A09", "B05", "A01", "C08", "B01" };
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("Z900").isPresent()) {
+      return;
+    }
+
+    this.locationService.addLocation("Z900", 900);
+    for (var i = 0; i < PRODUCT_LOCATIONS.length; i++) {
+      this.locationService.addLocation(PRODUCT_LOCATIONS[i], 100 + i);
+      this.productService.addProduct(new AddProductRequest(
+          "Q-Product " + i, PRODUCT_LOCATIONS[i], 1.75, 1.75, 1000, ProductType.D_PAK));
+    }
+  }
+
+  @Test
+  @DisplayName("A new pluck list holds its plucks in walk order")
+  void newPluckListIsInWalkOrder() throws Exception {
+    var pluckList = this.pluckListService.generatePluckList(0, null);
+    while (pluckList.getPlucks().size() < 3) {
+      pluckList = this.pluckListService.generatePluckList(0, null);
+    }
+
+    var plucks = pluckList.getPlucks().stream().toList();
+    assertEquals(IntStream.range(0, plucks.size()).boxed().toList(), plucks.stream().map(Pluck::getSequence).toList());
+
+    var codes = plucks.stream().map(pluck -> pluck.getProduct().getLocation().getCode()).toList();
+    assertEquals(PickPathSequencer.sequence(codes, false), codes.stream().distinct().toList());
+  }
+
+}
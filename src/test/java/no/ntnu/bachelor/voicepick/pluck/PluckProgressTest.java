@@ -0,0 +1,101 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.features.pluck.dtos.PluckProgressDto;
+import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class PluckProgressTest {
+
+  private static final LocalDateTime CONFIRMED_AT = LocalDateTime.of(2023, 3, 1, 8, 0);
+  private static final LocalDateTime PLUCKED_AT = LocalDateTime.of(2023, 3, 1, 8, 5);
+  private static final LocalDateTime LAST_PLUCKED_AT = LocalDateTime.of(2023, 3, 1, 8, 9);
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+
+  @Test
+  @DisplayName("Progress for a batch of plucks is applied with one update")
+  void updateProgress() throws Exception {
+    this.locationService.addLocation("U101", 101);
+    this.locationService.addLocation("U102", 102);
+    for (var i = 0; i < 5; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "U-Product " + i, "U101", 1.75, 1.75, 50, ProductType.D_PAK));
+    }
+
+    // Make sure the pluck list has more than one pluck
+    var pluckList = this.pluckListService.generatePluckList(0, null);
+    while (pluckList.getPlucks().size() < 2) {
+      pluckList = this.pluckListService.generatePluckList(0, null);
+    }
+    var pluckIds = pluckList.getPlucks().stream().map(Pluck::getId).sorted().toList();
+    var lastId = pluckIds.get(pluckIds.size() - 1);
+
+    // Confirm every pluck and pluck all but the last one
+    StatementCounter.reset();
+    var result = this.pluckListService.updateProgress(pluckIds.stream()
+        .map(id -> new PluckProgressDto(id, CONFIRMED_AT, id.equals(lastId) ? null : PLUCKED_AT))
+        .toList());
+
+    assertEquals(pluckIds.size(), result.getConfirmed());
+    assertEquals(pluckIds.size() - 1, result.getPlucked());
+    assertTrue(result.getFinishedPluckLists().isEmpty());
+    // One update of the plucks, no matter how many, and one stamping the pluck list as confirmed
+    assertEquals(2, StatementCounter.count("update"));
+    assertEquals(CONFIRMED_AT, this.pluckListService.findById(pluckList.getId()).orElseThrow().getConfirmedAt());
+
+    // Pluck the last one
+    StatementCounter.reset();
+    result = this.pluckListService.updateProgress(List.of(new PluckProgressDto(lastId, null, LAST_PLUCKED_AT)));
+
+    assertEquals(0, result.getConfirmed());
+    assertEquals(1, result.getPlucked());
+    assertEquals(List.of(pluckList.getId()), result.getFinishedPluckLists());
+    assertEquals(2, StatementCounter.count("update"));
+
+    var finished = this.pluckListService.findById(pluckList.getId()).orElseThrow();
+    assertEquals(CONFIRMED_AT, finished.getConfirmedAt());
+    assertEquals(LAST_PLUCKED_AT, finished.getFinishedAt());
+
+    // Reporting the same progress again changes nothing
+    result = this.pluckListService.updateProgress(List.of(new PluckProgressDto(lastId, CONFIRMED_AT, PLUCKED_AT)));
+
+    assertEquals(0, result.getConfirmed());
+    assertEquals(0, result.getPlucked());
+    assertTrue(result.getFinishedPluckLists().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Progress without a pluck id is rejected")
+  void updateProgressWithoutId() {
+    var progress = List.of(new PluckProgressDto(null, CONFIRMED_AT, null));
+
+    assertThrows(IllegalArgumentException.class, () -> this.pluckListService.updateProgress(progress));
+  }
+
+}
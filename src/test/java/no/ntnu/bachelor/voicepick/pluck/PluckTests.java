@@ -12,7 +12,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import no.ntnu.bachelor.voicepick.models.Product;
 import no.ntnu.bachelor.voicepick.models.ProductType;
-import no.ntnu.bachelor.voicepick.models.Status;
 import no.ntnu.bachelor.voicepick.features.pluck.models.Pluck;
 import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
 
@@ -30,8 +29,8 @@ class PluckTests {
     var m200 = new Location("M200", 321);
 
     // Products
-    var melk = new Product("Q-melk", 1.75, 1.75, 50, ProductType.D_PAK, Status.READY);
-    var cola = new Product("6-pack Coca Cola", 9, 9, 100, ProductType.D_PAK, Status.READY);
+    var melk = new Product("Q-melk", 1.75, 1.75, 50, ProductType.D_PAK);
+    var cola = new Product("6-pack Coca Cola", 9, 9, 100, ProductType.D_PAK);
 
     // Add products to locations
     h201.addEntity(melk);
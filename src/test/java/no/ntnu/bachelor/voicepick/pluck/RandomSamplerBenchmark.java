@@ -0,0 +1,74 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSampler;
+
+/**
+ * Compares {@link RandomSampler} against the copy-and-remove extraction it replaced,
+ * picking up to ten elements from lists of growing size.
+ *
+ * <p>Run with the {@code main} method from the test classpath. Add {@code -prof gc}
+ * to the JMH arguments to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class RandomSamplerBenchmark {
+
+  private static final int MAX = 10;
+
+  @Param({ "10", "1000", "100000", "1000000" })
+  private int size;
+
+  private List<Integer> source;
+  private Random random;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    this.source = new ArrayList<>(IntStream.range(0, this.size).boxed().toList());
+    this.random = new Random(42);
+  }
+
+  @Benchmark
+  public List<Integer> randomSampler() {
+    return RandomSampler.sampleUpTo(this.source, MAX, this.random);
+  }
+
+  @Benchmark
+  public Set<Integer> copyAndRemove() {
+    var copy = new ArrayList<>(this.source);
+
+    var numberOfPlucks = this.random.nextInt(Math.min(copy.size(), MAX)) + 1;
+
+    var extracted = new HashSet<Integer>();
+    for (var i = 0; i < numberOfPlucks; i++) {
+      var index = this.random.nextInt(copy.size());
+      extracted.add(copy.get(index));
+      copy.remove(index);
+    }
+
+    return extracted;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RandomSamplerBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
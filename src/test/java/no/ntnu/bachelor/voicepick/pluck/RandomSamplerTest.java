@@ -0,0 +1,80 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import no.ntnu.bachelor.voicepick.features.pluck.utils.RandomSampler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSamplerTest {
+
+  private static final List<Integer> SOURCE = IntStream.range(0, 5).boxed().toList();
+
+  @Test
+  @DisplayName("Sampled elements are distinct and the source is left untouched")
+  void sampleIsDistinct() {
+    var random = new Random(42);
+    var source = IntStream.range(0, 1000).boxed().toList();
+
+    for (var k = 0; k <= 20; k++) {
+      var sample = RandomSampler.sample(source, k, random);
+
+      assertEquals(k, sample.size());
+      assertEquals(k, new HashSet<>(sample).size());
+    }
+    assertEquals(SOURCE.size(), RandomSampler.sample(SOURCE, SOURCE.size(), random).size());
+  }
+
+  @Test
+  @DisplayName("Every ordered pick is equally likely")
+  void sampleIsUniform() {
+    var random = new Random(42);
+    final int TRIALS = 200_000;
+
+    // 5 * 4 ordered pairs when picking 2 of 5
+    var counts = new int[SOURCE.size() * SOURCE.size()];
+    for (var i = 0; i < TRIALS; i++) {
+      var sample = RandomSampler.sample(SOURCE, 2, random);
+      counts[sample.get(0) * SOURCE.size() + sample.get(1)]++;
+    }
+
+    var expected = TRIALS / 20.0;
+    for (var first = 0; first < SOURCE.size(); first++) {
+      for (var second = 0; second < SOURCE.size(); second++) {
+        var count = counts[first * SOURCE.size() + second];
+        if (first == second) {
+          assertEquals(0, count);
+        } else {
+          assertEquals(expected, count, expected * 0.05);
+        }
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Sample up to a maximum never picks more than the list holds")
+  void sampleUpToIsCapped() {
+    var random = new Random(42);
+
+    for (var i = 0; i < 1000; i++) {
+      var size = RandomSampler.sampleUpTo(SOURCE, 10, random).size();
+      assertTrue(size >= 1 && size <= SOURCE.size());
+    }
+  }
+
+  @Test
+  @DisplayName("Try to pick more elements than the list holds")
+  void sampleTooMany() {
+    var random = new Random(42);
+
+    assertThrows(IllegalArgumentException.class, () -> RandomSampler.sample(SOURCE, 6, random));
+    assertThrows(IllegalArgumentException.class, () -> RandomSampler.sample(SOURCE, -1, random));
+  }
+
+}
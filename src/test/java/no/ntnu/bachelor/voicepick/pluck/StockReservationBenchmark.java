@@ -0,0 +1,81 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import no.ntnu.bachelor.voicepick.BenchmarkContext;
+import no.ntnu.bachelor.voicepick.exceptions.EmptyListException;
+import no.ntnu.bachelor.voicepick.features.pluck.models.PluckList;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.models.Status;
+
+/**
+ * Measures the throughput of generating pluck lists from several threads at once while their
+ * stock is reserved, for a shrinking number of products to pick from. With few products,
+ * almost every generation wants to reserve from the same rows.
+ *
+ * <p>Run with the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(8)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class StockReservationBenchmark {
+
+  private static final long ID_OFFSET = 1_000_000_000L;
+
+  @Param({ "1", "10", "1000" })
+  private int products;
+
+  private ConfigurableApplicationContext context;
+  private PluckListService pluckListService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    this.context = BenchmarkContext.start();
+    this.pluckListService = this.context.getBean(PluckListService.class);
+
+    var jdbc = this.context.getBean(JdbcTemplate.class);
+    jdbc.update("INSERT INTO location (location_id, code, control_digits) VALUES (?, ?, ?)", ID_OFFSET, "B1", 101);
+    jdbc.update("INSERT INTO location (location_id, code, control_digits) VALUES (?, ?, ?)", ID_OFFSET + 1, "B2", 102);
+
+    var entities = new ArrayList<Object[]>(this.products);
+    var rows = new ArrayList<Object[]>(this.products);
+    for (var i = 0; i < this.products; i++) {
+      var id = ID_OFFSET + i;
+      entities.add(new Object[] { id, ID_OFFSET });
+      rows.add(new Object[] { id, "Product " + i, Integer.MAX_VALUE, Status.READY.ordinal(), ProductType.D_PAK.ordinal(), 1.75, 1.75 });
+    }
+    jdbc.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+    jdbc.batchUpdate("INSERT INTO product (id, product_name, quantity, status, type, volume, weight) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.context.close();
+  }
+
+  @Benchmark
+  public PluckList generatePluckList() throws EmptyListException {
+    return this.pluckListService.generatePluckList(0, null);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(StockReservationBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
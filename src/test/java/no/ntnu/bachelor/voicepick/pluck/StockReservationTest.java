@@ -0,0 +1,100 @@
+package no.ntnu.bachelor.voicepick.pluck;
+
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.exceptions.EmptyListException;
+import no.ntnu.bachelor.voicepick.features.pluck.services.PluckListService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class StockReservationTest {
+
+  private static final int PRODUCTS = 3;
+  private static final int QUANTITY = 40;
+  private static final int THREADS = 8;
+  private static final int GENERATIONS_PER_THREAD = 15;
+
+  @Autowired
+  private PluckListService pluckListService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName("Concurrent pluck list generation never reserves more than the stock")
+  void noOversubscription() throws Exception {
+    this.locationService.addLocation("T101", 101);
+    this.locationService.addLocation("T102", 102);
+    for (var i = 0; i < PRODUCTS; i++) {
+      this.productService.addProduct(new AddProductRequest(
+          "T-Product " + i, "T101", 1.75, 1.75, QUANTITY, ProductType.D_PAK));
+    }
+
+    var generated = new AtomicInteger();
+    var outOfStock = new AtomicInteger();
+    var failed = new AtomicInteger();
+    var start = new CountDownLatch(1);
+
+    var executor = Executors.newFixedThreadPool(THREADS);
+    for (var t = 0; t < THREADS; t++) {
+      executor.submit(() -> {
+        start.await();
+        for (var i = 0; i < GENERATIONS_PER_THREAD; i++) {
+          try {
+            this.pluckListService.generatePluckList(0, null);
+            generated.incrementAndGet();
+          } catch (EmptyListException e) {
+            outOfStock.incrementAndGet();
+          } catch (RuntimeException e) {
+            // A lock wait that timed out rolls back the whole pluck list
+            failed.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+
+    assertEquals(THREADS * GENERATIONS_PER_THREAD, generated.get() + outOfStock.get() + failed.get());
+    assertTrue(generated.get() > 0);
+
+    var rows = this.jdbcTemplate.queryForList(
+        "SELECT p.quantity AS quantity, " +
+            "(SELECT COALESCE(SUM(pl.amount), 0) FROM pluck pl WHERE pl.product_id = p.id) AS plucked " +
+            "FROM product p WHERE p.product_name LIKE 'T-Product %'");
+
+    assertEquals(PRODUCTS, rows.size());
+    for (var row : rows) {
+      var quantity = ((Number) row.get("quantity")).intValue();
+      var plucked = ((Number) row.get("plucked")).intValue();
+
+      assertTrue(quantity >= 0);
+      assertEquals(QUANTITY, quantity + plucked);
+    }
+  }
+
+}
@@ -42,8 +42,7 @@ class ProductControllerTest {
       -1, 
       -100, 
       -200, 
-      ProductType.D_PAK, 
-      Status.EMPTY
+      ProductType.D_PAK
       ));
 
       assertEquals(HttpStatus.METHOD_NOT_ALLOWED, response.getStatusCode());
@@ -60,8 +59,7 @@ class ProductControllerTest {
       1.75,
       1.75,
       50,
-      ProductType.D_PAK,
-      Status.READY
+      ProductType.D_PAK
     ));
 
     assertEquals(1, productService.getAllProducts().size());
@@ -78,8 +76,7 @@ class ProductControllerTest {
       1.75,
       1.75,
       50,
-      ProductType.D_PAK,
-      Status.READY
+      ProductType.D_PAK
     ));
 
     var productsFound = this.productService.getProductsByName("Coca Cola");
@@ -0,0 +1,97 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class ProductDeletionTest {
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private TransactionTemplate transaction;
+
+  private Long locationId;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("Z101").isEmpty()) {
+      this.locationService.addLocation("Z101", 101);
+    }
+    this.locationId = this.locationService.getLocationByCode("Z101").orElseThrow().getId();
+  }
+
+  @Test
+  @DisplayName("Products are deleted by name with one statement per table, leaving other products")
+  void deleteByName() {
+    for (var i = 0; i < 20; i++) {
+      this.addProduct("Z-Deleted", "Z101");
+    }
+    this.addProduct("Z-Deleted", null);
+    this.addProduct("Z-Kept", "Z101");
+
+    StatementCounter.reset();
+    this.productService.deleteAll("Z-Deleted");
+
+    assertEquals(2, StatementCounter.count("delete"));
+    assertEquals(1, StatementCounter.count("select"));
+    assertTrue(this.productService.getProductsByName("Z-Deleted").isEmpty());
+    assertEquals(1, this.productService.getProductsByName("Z-Kept").size());
+    assertEquals(1, this.locationService.getLocationEntities(this.locationId).size());
+
+    var orphans = this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM location_entity e WHERE NOT EXISTS (SELECT 1 FROM product p WHERE p.id = e.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM pluck_list l WHERE l.id = e.id)", Long.class);
+    assertEquals(0, orphans);
+  }
+
+  @Test
+  @DisplayName("Locations loaded in the same transaction no longer hold the deleted products")
+  void deleteClearsLoadedLocations() {
+    this.addProduct("Z-Loaded", "Z101");
+
+    this.transaction.executeWithoutResult(status -> {
+      var before = this.locationService.getLocationEntities(this.locationId).size();
+
+      this.productService.deleteAll("Z-Loaded");
+
+      assertEquals(before - 1, this.locationService.getLocationEntities(this.locationId).size());
+    });
+  }
+
+  @Test
+  @DisplayName("Deleting a name without products does nothing")
+  void deleteUnknownName() {
+    StatementCounter.reset();
+    this.productService.deleteAll("Z-Unknown");
+
+    assertEquals(0, StatementCounter.count("delete"));
+  }
+
+  private void addProduct(String name, String location) {
+    this.productService.addProduct(new AddProductRequest(name, location, 1, 1, 1, ProductType.D_PAK));
+  }
+
+}
@@ -0,0 +1,169 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import no.ntnu.bachelor.voicepick.StatementCounter;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.dtos.ImportRowError;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.OccupancyIndex;
+import no.ntnu.bachelor.voicepick.services.ProductImportService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=no.ntnu.bachelor.voicepick.StatementCounter")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class ProductImportTest {
+
+  @Autowired
+  private ProductImportService productImportService;
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private OccupancyIndex occupancyIndex;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("R101").isEmpty()) {
+      this.locationService.addLocation("R101", 101);
+      this.locationService.addLocation("R102", 102);
+    }
+  }
+
+  @Test
+  @DisplayName("Products are imported from a JSON array, and invalid rows are reported")
+  void importJson() throws Exception {
+    var result = this.productImportService.importJson(body("""
+        [
+          {"name": "R-Milk", "location": "R101", "weight": 1.5, "volume": 1.5, "quantity": 10, "type": "D_PAK", "status": "READY"},
+          {"name": "R-Milk", "location": "R102", "weight": 1.5, "volume": 1.5, "quantity": 20, "type": "D_PAK", "status": "READY"},
+          {"name": "R-Loose", "weight": 1, "volume": 1, "quantity": 5},
+          {"name": "R-Lost", "location": "R999", "weight": 1, "volume": 1, "quantity": 5},
+          {"name": "R-Light", "location": "R101", "weight": 0, "volume": 1, "quantity": 5},
+          {"location": "R101", "weight": 1, "volume": 1, "quantity": 5},
+          {"name": "R-Typed", "location": "R101", "weight": 1, "volume": 1, "quantity": 5, "type": "CRATE"},
+          "R-Text"
+        ]
+        """));
+
+    assertEquals(3, result.getImported());
+    assertEquals(5, result.getRejected());
+    assertEquals(List.of(4L, 5L, 6L, 7L, 8L), result.getErrors().stream().map(ImportRowError::getRow).sorted().toList());
+
+    var milk = this.productService.getProductsByName("R-Milk");
+    assertEquals(List.of("R101", "R102"), milk.stream().map(product -> product.getLocation().getCode()).sorted().toList());
+    assertNull(this.productService.getProductsByName("R-Loose").get(0).getLocation());
+    assertTrue(this.productService.getProductsByName("R-Lost").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Products are imported from NDJSON, and invalid rows are reported")
+  void importNdjson() throws Exception {
+    var result = this.productImportService.importNdjson(body("""
+        {"name": "S-Juice", "location": "R102", "weight": 1, "volume": 1, "quantity": 10}
+
+        {"name": "S-Juice", "location": "R102", "weight": 1, "volume": 1, "quantity": -1}
+        {"name": "S-Juice",
+        """));
+
+    assertEquals(1, result.getImported());
+    assertEquals(2, result.getRejected());
+    assertEquals(List.of(3L, 4L), result.getErrors().stream().map(ImportRowError::getRow).toList());
+    assertEquals(1, this.productService.getProductsByName("S-Juice").size());
+  }
+
+  @Test
+  @DisplayName("A body that is not a JSON array is not read")
+  void importInvalidJson() {
+    assertThrows(IOException.class, () -> this.productImportService.importJson(body("{\"name\": \"T-Single\"}")));
+    assertThrows(IOException.class, () -> this.productImportService.importJson(body("[{\"name\": \"T-Open\"")));
+  }
+
+  @Test
+  @DisplayName("Large imports resolve locations with one query per chunk, and insert in JDBC batches")
+  void importInBatches() throws Exception {
+    var rows = 2500;
+    var ndjson = IntStream.range(0, rows)
+        .mapToObj(i -> "{\"name\": \"U-Product\", \"location\": \"R10" + (1 + i % 2) + "\", \"weight\": 1, \"volume\": 1, \"quantity\": " + i + "}")
+        .collect(Collectors.joining("\n"));
+
+    StatementCounter.reset();
+    var result = this.productImportService.importNdjson(body(ndjson));
+
+    assertEquals(rows, result.getImported());
+    assertEquals(0, result.getRejected());
+    // One lookup of the locations per chunk of 1000
+    assertEquals(3, StatementCounter.statements("select").stream().filter(sql -> sql.contains(".code in")).count());
+    // The rows are inserted in JDBC batches rather than by Hibernate, one entity at a time
+    assertEquals(0, StatementCounter.count("insert"));
+
+    var products = this.productService.getProductsByName("U-Product");
+    assertEquals(rows, products.size());
+    assertEquals(rows / 2, products.stream().filter(product -> product.getLocation().getCode().equals("R101")).count());
+    assertEquals(rows * (rows - 1L) / 2, products.stream().mapToLong(Product::getQuantity).sum());
+  }
+
+  @Test
+  @DisplayName("Imported products share ids with products added one at a time, and occupy their locations")
+  void importedProductsAreConsistent() throws Exception {
+    this.productService.addProduct(new AddProductRequest("W-Before", "R101", 1, 1, 1, ProductType.D_PAK));
+    this.locationService.addLocation("R103", 103);
+    this.productImportService.importNdjson(body("""
+        {"name": "W-Imported", "location": "R103", "weight": 1, "volume": 1, "quantity": 1}
+        """));
+    this.productService.addProduct(new AddProductRequest("W-After", "R101", 1, 1, 1, ProductType.D_PAK));
+
+    var ids = Stream.of("W-Before", "W-Imported", "W-After")
+        .map(name -> this.productService.getProductsByName(name).get(0).getId()).toList();
+    assertEquals(3, new HashSet<>(ids).size());
+
+    var r103 = this.locationService.getLocationByCode("R103").orElseThrow().getId();
+    assertFalse(this.occupancyIndex.pluckListLocationIds().contains(r103));
+  }
+
+  @Test
+  @DisplayName("A chunk that cannot be stored is rejected, and the import goes on with the next chunk")
+  void failedChunkIsRejected() throws Exception {
+    // The long name does not fit the column, so storing the first chunk fails
+    var ndjson = IntStream.range(0, 1500)
+        .mapToObj(i -> "{\"name\": \"" + (i == 2 ? "X".repeat(300) : "X-Product") + "\", \"location\": \"R102\", " +
+            "\"weight\": 1, \"volume\": 1, \"quantity\": 1}")
+        .collect(Collectors.joining("\n"));
+
+    var result = this.productImportService.importNdjson(body(ndjson));
+
+    assertEquals(500, result.getImported());
+    assertEquals(1000, result.getRejected());
+    assertEquals(1L, result.getErrors().get(0).getRow());
+    assertEquals(1000L, result.getErrors().get(999).getRow());
+    assertEquals(500, this.productService.getProductsByName("X-Product").size());
+  }
+
+  private static InputStream body(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,125 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import jakarta.persistence.EntityManager;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.Status;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class ProductPagingTest {
+
+  private static final long ID_OFFSET = 1_000_000_000L;
+  private static final int PRODUCTS = 1200;
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private EntityManager entityManager;
+
+  @BeforeEach
+  void setup() {
+    if (this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE id >= ?", Long.class, ID_OFFSET) > 0) {
+      return;
+    }
+
+    // Every other product is stored at its own location, the rest have no location
+    var locations = new ArrayList<Object[]>();
+    var entities = new ArrayList<Object[]>();
+    var products = new ArrayList<Object[]>();
+    for (var i = 0; i < PRODUCTS; i++) {
+      var id = ID_OFFSET + i;
+      if (i % 2 == 0) {
+        locations.add(new Object[]{id, "Q" + i, i % 1000});
+      }
+      entities.add(new Object[]{id, i % 2 == 0 ? id : null});
+      products.add(new Object[]{id, "Q-Product " + i, Status.READY.ordinal()});
+    }
+    this.jdbcTemplate.batchUpdate("INSERT INTO location (location_id, code, control_digits) VALUES (?, ?, ?)", locations);
+    this.jdbcTemplate.batchUpdate("INSERT INTO location_entity (id, location_location_id) VALUES (?, ?)", entities);
+    this.jdbcTemplate.batchUpdate(
+        "INSERT INTO product (id, product_name, quantity, status, weight, volume) VALUES (?, ?, 10, ?, 1, 1)", products);
+  }
+
+  @Test
+  @DisplayName("Paging through the products returns every product once, in id order")
+  void pageThroughProducts() {
+    var ids = this.pageThrough(false);
+
+    assertEquals(expectedIds(false), ids);
+  }
+
+  @Test
+  @DisplayName("Paging through the available products skips the products without a location")
+  void pageThroughAvailableProducts() {
+    var ids = this.pageThrough(true);
+
+    assertEquals(expectedIds(true), ids);
+  }
+
+  @Test
+  @DisplayName("Pages are bounded")
+  void invalidPages() {
+    assertThrows(IllegalArgumentException.class, () -> this.productService.getProducts(null, 0, false));
+    assertThrows(IllegalArgumentException.class,
+        () -> this.productService.getProducts(null, ProductService.MAX_PAGE_SIZE + 1, false));
+  }
+
+  @Test
+  @DisplayName("Streaming the products keeps a bounded number of entities in the persistence context")
+  void streamProductsWithBoundedContext() {
+    var ids = new ArrayList<Long>();
+    var maxManaged = new AtomicInteger();
+
+    this.productService.forEachProduct(false, (Product product) -> {
+      if (product.getId() >= ID_OFFSET) {
+        ids.add(product.getId());
+      }
+      var managed = this.entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+      maxManaged.accumulateAndGet(managed, Math::max);
+    });
+
+    assertEquals(expectedIds(false), ids);
+    // The products of one fetch, and the locations they are stored at
+    assertTrue(maxManaged.get() <= 2 * 1000, "Managed entities: " + maxManaged.get());
+  }
+
+  private List<Long> pageThrough(boolean available) {
+    var ids = new ArrayList<Long>();
+    Long cursor = ID_OFFSET - 1;
+    do {
+      var page = this.productService.getProducts(cursor, 500, available);
+      page.getProducts().forEach(product -> ids.add(product.getId()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+    return ids;
+  }
+
+  private static List<Long> expectedIds(boolean available) {
+    return LongStream.range(ID_OFFSET, ID_OFFSET + PRODUCTS)
+        .filter(id -> !available || (id - ID_OFFSET) % 2 == 0)
+        .boxed()
+        .toList();
+  }
+
+}
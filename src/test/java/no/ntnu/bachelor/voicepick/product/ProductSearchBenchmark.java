@@ -0,0 +1,74 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import no.ntnu.bachelor.voicepick.dtos.ProductMatch;
+import no.ntnu.bachelor.voicepick.services.ProductSearchIndex;
+
+/**
+ * Measures searches in {@link ProductSearchIndex} holding a million products, with a query
+ * for each way a name can match: the full name, the start of a word, a misspelled word and a
+ * word that only sounds right.
+ *
+ * <p>Run with the {@code main} method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ProductSearchBenchmark {
+
+  private static final int PRODUCTS = 1_000_000;
+  private static final int PRODUCTS_PER_NAME = 4;
+
+  static final List<String> BRANDS = List.of(
+      "Tine", "Q", "Synnøve", "Gilde", "Prior", "Nora", "Idun", "Toro", "Mills", "Stabburet",
+      "Friele", "Evergood", "Freia", "Nidar", "Kavli", "Sætre", "Bama", "Hatting", "Mors", "Eldorado");
+  static final List<String> KINDS = List.of(
+      "Lettmelk", "Helmelk", "Yoghurt", "Smør", "Ost", "Kaffe", "Te", "Juice", "Brød", "Knekkebrød",
+      "Leverpostei", "Makrell", "Kjøttdeig", "Pølser", "Egg", "Ketchup", "Sennep", "Majones", "Syltetøy", "Sjokolade",
+      "Kaker", "Kjeks", "Havregryn", "Müsli", "Ris", "Pasta", "Tomatsaus", "Buljong", "Potetgull", "Brus");
+
+  @Param({ "tine lettmelk 100 g", "lettm", "letmelk", "caffe" })
+  private String query;
+
+  private ProductSearchIndex index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    this.index = new ProductSearchIndex(null, null);
+    for (var id = 0L; id < PRODUCTS; id++) {
+      this.index.add(id, name(id / PRODUCTS_PER_NAME));
+    }
+  }
+
+  /**
+   * Names like {@code "Tine Lettmelk 100 g"}, with every brand, kind and size combined
+   */
+  static String name(long number) {
+    var brand = BRANDS.get((int) (number % BRANDS.size()));
+    var kind = KINDS.get((int) (number / BRANDS.size() % KINDS.size()));
+    var size = number / (BRANDS.size() * KINDS.size());
+    return brand + " " + kind + " " + size + " g";
+  }
+
+  @Benchmark
+  public List<ProductMatch> search() {
+    return this.index.search(this.query, 10);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ProductSearchBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+}
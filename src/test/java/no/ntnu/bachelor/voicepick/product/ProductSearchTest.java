@@ -0,0 +1,111 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.dtos.ProductMatch;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.services.ProductImportService;
+import no.ntnu.bachelor.voicepick.services.ProductSearchIndex;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class ProductSearchTest {
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private ProductImportService productImportService;
+  @Autowired
+  private ProductSearchIndex searchIndex;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setup() {
+    if (!this.productService.getProductsByName("Tine Lettmelk").isEmpty()) {
+      return;
+    }
+
+    for (var name : List.of("Tine Lettmelk", "Tine Lettmelk", "Tine Helmelk", "Q Lettmelk Laktosefri",
+        "Evergood Kaffe", "Friele Frokostkaffe", "Café Crème", "Leverpostei")) {
+      this.addProduct(name);
+    }
+  }
+
+  @Test
+  @DisplayName("The exact name ranks first, followed by similar names")
+  void exactNameFirst() {
+    var matches = this.productService.searchProducts("tine lettmelk", 10);
+
+    assertEquals("Tine Lettmelk", matches.get(0).getName());
+    assertEquals(1.0, matches.get(0).getScore());
+    assertEquals(2, matches.get(0).getProductIds().size());
+    assertTrue(names(matches).contains("Tine Helmelk"));
+  }
+
+  @Test
+  @DisplayName("Names are found by the start of their words, ignoring case and accents")
+  void prefixMatches() {
+    assertEquals(List.of("Tine Lettmelk", "Q Lettmelk Laktosefri"), names(this.productService.searchProducts("LETTM", 2)));
+    assertEquals("Café Crème", this.productService.searchProducts("cafe creme", 1).get(0).getName());
+  }
+
+  @Test
+  @DisplayName("Names are found by words that sound alike, and by misspelled words")
+  void fuzzyMatches() {
+    assertTrue(names(this.productService.searchProducts("evergood caffe", 3)).contains("Evergood Kaffe"));
+    assertEquals("Leverpostei", this.productService.searchProducts("leverposteii", 1).get(0).getName());
+    assertTrue(this.productService.searchProducts("xyzzy", 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Added, imported and deleted products are reflected in the index")
+  void incrementalUpdates() throws Exception {
+    this.addProduct("Gilde Kokt Skinke");
+    this.productImportService.importNdjson(new ByteArrayInputStream("""
+        {"name": "Gilde Grillpølse", "weight": 1, "volume": 1, "quantity": 1}
+        """.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(List.of("Gilde Grillpølse", "Gilde Kokt Skinke"), names(this.productService.searchProducts("gilde", 10)));
+
+    this.productService.deleteAll("Gilde Kokt Skinke");
+    assertEquals(List.of("Gilde Grillpølse"), names(this.productService.searchProducts("gilde", 10)));
+  }
+
+  @Test
+  @DisplayName("Products stored outside the application are found after a rebuild")
+  void rebuildReadsStoredProducts() {
+    this.jdbcTemplate.update("INSERT INTO location_entity (id) VALUES (1000000001)");
+    this.jdbcTemplate.update("INSERT INTO product (id, product_name, quantity, weight, volume) VALUES (1000000001, 'Nora Syltetøy', 1, 1, 1)");
+    assertTrue(this.productService.searchProducts("syltetoy", 10).isEmpty());
+
+    this.searchIndex.rebuild();
+
+    assertEquals(List.of(1000000001L), this.productService.searchProducts("syltetoy", 10).get(0).getProductIds());
+  }
+
+  private void addProduct(String name) {
+    this.productService.addProduct(new AddProductRequest(name, null, 1, 1, 1, ProductType.D_PAK));
+  }
+
+  private static List<String> names(List<ProductMatch> matches) {
+    return matches.stream().map(ProductMatch::getName).toList();
+  }
+
+}
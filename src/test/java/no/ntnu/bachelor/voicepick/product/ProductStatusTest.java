@@ -0,0 +1,148 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import jakarta.persistence.EntityManager;
+import no.ntnu.bachelor.voicepick.dtos.AddProductRequest;
+import no.ntnu.bachelor.voicepick.events.ProductEmptiedEvent;
+import no.ntnu.bachelor.voicepick.features.pluck.services.StockReservationService;
+import no.ntnu.bachelor.voicepick.models.ProductType;
+import no.ntnu.bachelor.voicepick.models.Status;
+import no.ntnu.bachelor.voicepick.models.StockMovementType;
+import no.ntnu.bachelor.voicepick.repositories.ProductRepository;
+import no.ntnu.bachelor.voicepick.services.LocationService;
+import no.ntnu.bachelor.voicepick.services.ProductService;
+import no.ntnu.bachelor.voicepick.services.StockMovementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+@RecordApplicationEvents
+class ProductStatusTest {
+
+  @Autowired
+  private ProductService productService;
+  @Autowired
+  private LocationService locationService;
+  @Autowired
+  private StockMovementService stockMovementService;
+  @Autowired
+  private ProductRepository productRepository;
+  @Autowired
+  private StockReservationService stockReservationService;
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private TransactionTemplate transaction;
+  @Autowired
+  private ApplicationEvents events;
+
+  @BeforeEach
+  void setup() {
+    if (this.locationService.getLocationByCode("T101").isEmpty()) {
+      this.locationService.addLocation("T101", 101);
+    }
+  }
+
+  @Test
+  @DisplayName("Products added without stock are empty, and not available")
+  void productsWithoutStockAreEmpty() {
+    this.productService.addProduct(new AddProductRequest(
+        "T-Out of stock", "T101", 1.75, 1.75, 0, ProductType.D_PAK));
+    var product = this.productService.getProductsByName("T-Out of stock").get(0);
+
+    assertEquals(Status.EMPTY, product.getStatus());
+    assertTrue(this.productService.getAvailableProducts().stream().noneMatch(p -> p.getId().equals(product.getId())));
+  }
+
+  @Test
+  @DisplayName("Products taken down to zero become empty in the same transaction, and an event is published")
+  void emptiedProductsPublishEvent() {
+    var id = this.addProduct("T-Emptied", 5);
+    var available = this.productService.countAvailableProducts();
+
+    this.transaction.executeWithoutResult(status -> {
+      var product = this.productRepository.findById(id).orElseThrow();
+      product.setQuantity(0);
+    });
+
+    assertEquals(Status.EMPTY, this.productRepository.findById(id).orElseThrow().getStatus());
+    assertEquals(available - 1, this.productService.countAvailableProducts());
+    assertEquals(1, this.emptiedEvents(id));
+
+    this.transaction.executeWithoutResult(status -> this.productRepository.findById(id).orElseThrow().setQuantity(10));
+
+    assertEquals(Status.READY, this.productRepository.findById(id).orElseThrow().getStatus());
+    assertEquals(available, this.productService.countAvailableProducts());
+    assertEquals(1, this.emptiedEvents(id));
+  }
+
+  @Test
+  @DisplayName("Picks that empty a product publish an event, and update its status when flushed")
+  void picksEmptyProduct() {
+    var id = this.addProduct("T-Picked", 3);
+
+    this.stockMovementService.record(id, StockMovementType.PICK, 2);
+    this.stockMovementService.flush();
+    assertEquals(Status.READY, this.productRepository.findById(id).orElseThrow().getStatus());
+    assertEquals(0, this.emptiedEvents(id));
+
+    this.stockMovementService.record(id, StockMovementType.PICK, 1);
+    assertEquals(1, this.emptiedEvents(id));
+    this.stockMovementService.flush();
+    var product = this.productRepository.findById(id).orElseThrow();
+    assertEquals(0, product.getQuantity());
+    assertEquals(Status.EMPTY, product.getStatus());
+    assertEquals(1, this.emptiedEvents(id));
+
+    this.stockMovementService.record(id, StockMovementType.RECEIPT, 4);
+    this.stockMovementService.flush();
+    assertEquals(Status.READY, this.productRepository.findById(id).orElseThrow().getStatus());
+  }
+
+  @Test
+  @DisplayName("Emptying a product in a transaction that rolls back publishes no event")
+  void rolledBackReservationPublishesNothing() {
+    var id = this.addProduct("T-Reserved", 4);
+
+    this.transaction.executeWithoutResult(status -> {
+      var product = this.productRepository.findById(id).orElseThrow();
+      var locked = this.stockReservationService.lockInStock(List.of(product));
+      this.stockReservationService.reserve(locked.get(0), 4);
+      // Written like a pluck list that fails after its plucks are saved
+      this.entityManager.flush();
+      status.setRollbackOnly();
+    });
+    this.transaction.executeWithoutResult(status -> {
+      this.stockMovementService.record(id, StockMovementType.PICK, 4);
+      status.setRollbackOnly();
+    });
+
+    assertEquals(4, this.productRepository.findById(id).orElseThrow().getQuantity());
+    assertEquals(0, this.emptiedEvents(id));
+  }
+
+  private Long addProduct(String name, int quantity) {
+    this.productService.addProduct(new AddProductRequest(
+        name, "T101", 1.75, 1.75, quantity, ProductType.D_PAK));
+    return this.productService.getProductsByName(name).get(0).getId();
+  }
+
+  private long emptiedEvents(Long id) {
+    return this.events.stream(ProductEmptiedEvent.class).filter(event -> event.productId().equals(id)).count();
+  }
+
+}
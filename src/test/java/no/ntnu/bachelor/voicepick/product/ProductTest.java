@@ -17,7 +17,7 @@ class ProductTest {
   @Test
   @DisplayName("Create a valid product")
   void createValidProduct() {
-    var milk = new Product("Q-milk", 1.75, 1.75, 50, ProductType.D_PAK, Status.READY);
+    var milk = new Product("Q-milk", 1.75, 1.75, 50, ProductType.D_PAK);
     var h201 = new Location("H201", 321);
     h201.addEntity(milk);
 
@@ -33,7 +33,7 @@ class ProductTest {
   void createInvalidProduct() {
     // Invalid name
     try {
-      new Product("", 0, 0, -1, ProductType.D_PAK, Status.EMPTY);
+      new Product("", 0, 0, -1, ProductType.D_PAK);
       fail();
     } catch (IllegalArgumentException e) {
       assertTrue(true);
@@ -41,7 +41,7 @@ class ProductTest {
 
     // Invalid weight
     try {
-      new Product("Melk", 0, 0, -1, ProductType.D_PAK, Status.EMPTY);
+      new Product("Melk", 0, 0, -1, ProductType.D_PAK);
       fail();
     } catch (IllegalArgumentException e) {
       assertTrue(true);
@@ -49,7 +49,7 @@ class ProductTest {
 
     // Invalid volume
     try {
-      new Product("Melk", 1.75, 0, -1, ProductType.D_PAK, Status.EMPTY);
+      new Product("Melk", 1.75, 0, -1, ProductType.D_PAK);
       fail();
     } catch (IllegalArgumentException e) {
       assertTrue(true);
@@ -57,7 +57,7 @@ class ProductTest {
 
     // Invalid quantity
     try {
-      new Product("Melk", 1.75, 1.75, -1, ProductType.D_PAK, Status.EMPTY);
+      new Product("Melk", 1.75, 1.75, -1, ProductType.D_PAK);
       fail();
     } catch (IllegalArgumentException e) {
       assertTrue(true);
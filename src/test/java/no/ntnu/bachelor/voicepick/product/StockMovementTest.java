@@ -0,0 +1,233 @@
+package no.ntnu.bachelor.voicepick.product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import no.ntnu.bachelor.voicepick.features.pluck.services.StockReservationService;
+import no.ntnu.bachelor.voicepick.models.Product;
+import no.ntnu.bachelor.voicepick.models.StockMovementType;
+import no.ntnu.bachelor.voicepick.services.StockMovementService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = ClassMode.BEFORE_CLASS)
+class StockMovementTest {
+
+  private static final AtomicLong NEXT_ID = new AtomicLong(1_000_000_000L);
+  private static final int THREADS = 8;
+
+  @Autowired
+  private StockMovementService stockMovementService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private TransactionTemplate transaction;
+  @Autowired
+  private StockReservationService stockReservationService;
+  @Autowired
+  private EntityManager entityManager;
+
+  @Test
+  @DisplayName("Concurrent picks are all counted and recorded in the ledger")
+  void concurrentPicksAreCounted() throws Exception {
+    var id = this.addProduct(10_000);
+
+    this.runConcurrently(() -> {
+      for (var i = 0; i < 250; i++) {
+        this.stockMovementService.record(id, StockMovementType.PICK, 2);
+      }
+      return null;
+    });
+
+    assertEquals(10_000 - THREADS * 500, this.stockMovementService.getQuantity(id));
+    this.stockMovementService.flush();
+    assertEquals(10_000 - THREADS * 500, this.storedQuantity(id));
+    assertEquals(0, this.unapplied(id));
+    assertEquals(THREADS * 250, this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM stock_movement WHERE product_id = ?", Long.class, id));
+  }
+
+  @Test
+  @DisplayName("Reads never go back while receipts are recorded and flushed")
+  void readsAreMonotonicWhileRecording() throws Exception {
+    var id = this.addProduct(0);
+    var done = new AtomicBoolean();
+
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      var recorded = executor.submit(() -> {
+        for (var i = 0; i < 2000; i++) {
+          this.stockMovementService.record(id, StockMovementType.RECEIPT, 1);
+        }
+        done.set(true);
+      });
+      var reading = executor.submit(() -> {
+        var last = 0;
+        while (!done.get()) {
+          var quantity = this.stockMovementService.getQuantity(id);
+          assertTrue(quantity >= last, quantity + " after " + last);
+          last = quantity;
+        }
+      });
+      var flushing = executor.submit(() -> {
+        while (!done.get()) {
+          this.stockMovementService.flush();
+        }
+      });
+      recorded.get();
+      reading.get();
+      flushing.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(2000, this.stockMovementService.getQuantity(id));
+  }
+
+  @Test
+  @DisplayName("Reservations see the movements recorded since the product was read")
+  void reservationsSeeRecordedMovements() {
+    var id = this.addProduct(10);
+
+    this.stockMovementService.record(id, StockMovementType.PICK, 7);
+
+    var reserved = this.transaction.execute(status -> {
+      // The stored quantity does not include the pick, which is not flushed yet
+      var product = this.entityManager.find(Product.class, id);
+      assertEquals(10, product.getQuantity());
+
+      var locked = this.stockReservationService.lockInStock(List.of(product));
+      return this.stockReservationService.reserve(locked.get(0), 5);
+    });
+
+    assertEquals(3, reserved);
+    assertEquals(0, this.storedQuantity(id));
+    assertEquals(0, this.unapplied(id));
+  }
+
+  @Test
+  @DisplayName("Movements are applied to the stored quantity when flushed")
+  void flushAppliesMovements() {
+    var id = this.addProduct(10);
+
+    this.stockMovementService.record(id, StockMovementType.PICK, 4);
+    this.stockMovementService.record(id, StockMovementType.RECEIPT, 1);
+    assertEquals(10, this.storedQuantity(id));
+    assertEquals(7, this.stockMovementService.getQuantity(id));
+
+    this.stockMovementService.flush();
+    assertEquals(7, this.storedQuantity(id));
+    assertEquals(7, this.stockMovementService.getQuantity(id));
+    assertEquals(0, this.unapplied(id));
+  }
+
+  @Test
+  @DisplayName("Picks of more than is in stock are rejected")
+  void picksBeyondStockAreRejected() {
+    var id = this.addProduct(5);
+    this.stockMovementService.record(id, StockMovementType.PICK, 3);
+
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, StockMovementType.PICK, 3));
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, StockMovementType.ADJUSTMENT, -3));
+    this.stockMovementService.record(id, StockMovementType.PICK, 2);
+
+    this.stockMovementService.flush();
+    assertEquals(0, this.storedQuantity(id));
+    assertEquals(2, this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM stock_movement WHERE product_id = ?", Long.class, id));
+  }
+
+  @Test
+  @DisplayName("Adjustments change the quantity by their signed amount")
+  void adjustmentsAreSigned() {
+    var id = this.addProduct(100);
+
+    this.stockMovementService.record(id, StockMovementType.ADJUSTMENT, -30);
+    this.stockMovementService.record(id, StockMovementType.ADJUSTMENT, 5);
+    this.stockMovementService.record(id, StockMovementType.RECEIPT, 10);
+    this.stockMovementService.record(id, StockMovementType.PICK, 1);
+
+    assertEquals(84, this.stockMovementService.getQuantity(id));
+  }
+
+  @Test
+  @DisplayName("Movements that are rolled back are not counted")
+  void rolledBackMovementsAreIgnored() {
+    var id = this.addProduct(100);
+
+    this.transaction.executeWithoutResult(status -> {
+      this.stockMovementService.record(id, StockMovementType.PICK, 10);
+      status.setRollbackOnly();
+    });
+
+    assertEquals(100, this.stockMovementService.getQuantity(id));
+    assertEquals(0, this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM stock_movement WHERE product_id = ?", Long.class, id));
+  }
+
+  @Test
+  @DisplayName("Invalid movements are rejected")
+  void invalidMovements() {
+    var id = this.addProduct(100);
+
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, StockMovementType.PICK, 0));
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, StockMovementType.RECEIPT, -1));
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, StockMovementType.ADJUSTMENT, 0));
+    assertThrows(IllegalArgumentException.class, () -> this.stockMovementService.record(id, null, 1));
+    assertThrows(EntityNotFoundException.class, () -> this.stockMovementService.record(-1L, StockMovementType.PICK, 1));
+    assertThrows(EntityNotFoundException.class, () -> this.stockMovementService.getQuantity(-1L));
+    assertEquals(100, this.stockMovementService.getQuantity(id));
+    assertEquals(0, this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM stock_movement WHERE product_id = -1", Long.class));
+  }
+
+  private long addProduct(int quantity) {
+    var id = NEXT_ID.getAndIncrement();
+    this.jdbcTemplate.update("INSERT INTO location_entity (id) VALUES (?)", id);
+    this.jdbcTemplate.update(
+        "INSERT INTO product (id, product_name, quantity, weight, volume) VALUES (?, ?, ?, 1, 1)", id, "S-Product " + id, quantity);
+    return id;
+  }
+
+  private long unapplied(long id) {
+    return this.jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM stock_movement WHERE product_id = ? AND applied = false", Long.class, id);
+  }
+
+  private int storedQuantity(long id) {
+    return this.jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class, id);
+  }
+
+  private void runConcurrently(Callable<Void> task) throws Exception {
+    var executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      var tasks = new ArrayList<Callable<Void>>();
+      for (var i = 0; i < THREADS; i++) {
+        tasks.add(task);
+      }
+      for (var future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}